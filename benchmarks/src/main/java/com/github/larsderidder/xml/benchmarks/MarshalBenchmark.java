@@ -0,0 +1,51 @@
+package com.github.larsderidder.xml.benchmarks;
+
+import com.github.larsderidder.xml.XmlMapper;
+import com.github.larsderidder.xml.benchmarks.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@code toXml} with compact and formatted output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarshalBenchmark {
+
+    @Param({"small", "medium", "large"})
+    private String size;
+
+    private XmlMapper mapper;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        mapper = new XmlMapper(Payloads.MODEL_PACKAGE);
+        order = Payloads.order(size);
+    }
+
+    @Benchmark
+    public String toXmlCompact() {
+        return mapper.toXml(order, false);
+    }
+
+    @Benchmark
+    public String toXmlFormatted() {
+        return mapper.toXml(order, true);
+    }
+}
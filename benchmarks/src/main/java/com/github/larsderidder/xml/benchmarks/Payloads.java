@@ -0,0 +1,43 @@
+package com.github.larsderidder.xml.benchmarks;
+
+import com.github.larsderidder.xml.benchmarks.model.Order;
+import com.github.larsderidder.xml.benchmarks.model.OrderLine;
+
+import java.math.BigDecimal;
+
+/**
+ * Benchmark payloads of increasing size.
+ */
+final class Payloads {
+
+    static final String MODEL_PACKAGE = "com.github.larsderidder.xml.benchmarks.model";
+    static final String SCHEMA = "order.xsd";
+
+    private Payloads() {
+    }
+
+    /**
+     * Creates an order for the given payload size: small (~200 bytes), medium (~10 KB) or large (~500 KB).
+     */
+    static Order order(String size) {
+        Order order = new Order("order-1", "Customer & Co <test>");
+        int lines = lineCount(size);
+        for (int i = 0; i < lines; i++) {
+            order.getLines().add(new OrderLine("product-" + i, i % 10 + 1, new BigDecimal("19.95")));
+        }
+        return order;
+    }
+
+    private static int lineCount(String size) {
+        switch (size) {
+            case "small":
+                return 1;
+            case "medium":
+                return 100;
+            case "large":
+                return 5000;
+            default:
+                throw new IllegalArgumentException("Unknown payload size: " + size);
+        }
+    }
+}
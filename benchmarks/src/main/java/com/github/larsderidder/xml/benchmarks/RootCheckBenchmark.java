@@ -0,0 +1,58 @@
+package com.github.larsderidder.xml.benchmarks;
+
+import com.github.larsderidder.xml.RootInfo;
+import com.github.larsderidder.xml.XmlMapper;
+import com.github.larsderidder.xml.benchmarks.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of typed {@code fromXml}, which checks the root element while unmarshaling, against
+ * untyped {@code fromXml} and {@code peekRoot} on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RootCheckBenchmark {
+
+    @Param({"small", "medium"})
+    private String size;
+
+    private XmlMapper mapper;
+    private String xml;
+
+    @Setup
+    public void setUp() {
+        mapper = new XmlMapper(Payloads.MODEL_PACKAGE);
+        xml = mapper.toXml(Payloads.order(size));
+    }
+
+    @Benchmark
+    public Order fromXmlTyped() {
+        return mapper.fromXml(xml, Order.class);
+    }
+
+    @Benchmark
+    public Object fromXmlUntyped() {
+        return mapper.fromXml(xml, false);
+    }
+
+    @Benchmark
+    public RootInfo peekRoot() {
+        return mapper.peekRoot(xml);
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.larsderidder.xml.benchmarks;
+
+import com.github.larsderidder.xml.XmlMapper;
+import com.github.larsderidder.xml.benchmarks.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Throughput of {@code fromXml} for String and InputStream input, with and without schema validation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnmarshalBenchmark {
+
+    @Param({"small", "medium", "large"})
+    private String size;
+
+    @Param({"false", "true"})
+    private boolean validate;
+
+    private XmlMapper mapper;
+    private String xml;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        mapper = new XmlMapper(Payloads.MODEL_PACKAGE, Payloads.SCHEMA);
+        xml = mapper.toXml(Payloads.order(size));
+        bytes = xml.getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public Order fromXmlString() {
+        return mapper.fromXml(xml, Order.class, validate);
+    }
+
+    @Benchmark
+    public Order fromXmlInputStream() {
+        return mapper.fromXml(new ByteArrayInputStream(bytes), Order.class, validate);
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.larsderidder.xml.benchmarks.model;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class Order {
+
+    @XmlAttribute
+    private String id;
+
+    private String customer;
+
+    @XmlElement(name = "line")
+    private List<OrderLine> lines = new ArrayList<>();
+
+    public Order() {}
+
+    public Order(String id, String customer) {
+        this.id = id;
+        this.customer = customer;
+    }
+
+    public String getId() { return id; }
+    public String getCustomer() { return customer; }
+    public List<OrderLine> getLines() { return lines; }
+}
@@ -0,0 +1,25 @@
+package com.github.larsderidder.xml.benchmarks.model;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import java.math.BigDecimal;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+public class OrderLine {
+
+    private String product;
+    private int quantity;
+    private BigDecimal price;
+
+    public OrderLine() {}
+
+    public OrderLine(String product, int quantity, BigDecimal price) {
+        this.product = product;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    public String getProduct() { return product; }
+    public int getQuantity() { return quantity; }
+    public BigDecimal getPrice() { return price; }
+}
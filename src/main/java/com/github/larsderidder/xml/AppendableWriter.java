@@ -0,0 +1,55 @@
+package com.github.larsderidder.xml;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Writer that forwards characters to an {@link Appendable} without intermediate buffering.
+ */
+final class AppendableWriter extends Writer {
+
+    private final Appendable appendable;
+
+    AppendableWriter(Appendable appendable) {
+        this.appendable = appendable;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        appendable.append((char) c);
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        if (appendable instanceof StringBuilder) {
+            ((StringBuilder) appendable).append(buffer, offset, length);
+        } else {
+            appendable.append(CharBuffer.wrap(buffer, offset, length));
+        }
+    }
+
+    @Override
+    public void write(String str, int offset, int length) throws IOException {
+        appendable.append(str, offset, offset + length);
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        appendable.append(csq);
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (appendable instanceof Flushable) {
+            ((Flushable) appendable).flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
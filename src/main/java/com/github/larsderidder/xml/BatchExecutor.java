@@ -0,0 +1,92 @@
+package com.github.larsderidder.xml;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Runs a mapping function over a batch of items on an executor. Items are split into a few chunks
+ * per core so that every worker stays busy without paying per-item task overhead, and results are
+ * returned in input order with failures captured per item.
+ * <p>
+ * The calling thread runs every chunk no worker has started yet, and then only waits for chunks that
+ * are already running. A saturated executor, one that silently discards tasks, or a call from a
+ * task on the same bounded pool therefore slows the batch down instead of blocking it forever.
+ */
+final class BatchExecutor {
+
+    private static final int CHUNKS_PER_CORE = 4;
+
+    private BatchExecutor() {
+    }
+
+    /**
+     * @param failureMessage prefix for unexpected exceptions that are not already XmlMappingExceptions
+     */
+    @SuppressWarnings("unchecked")
+    static <I, O> List<BatchResult<O>> run(Collection<? extends I> items, final Function<I, O> function,
+                                           Executor executor, final String failureMessage) {
+        final List<I> inputs = new ArrayList<>(items);
+        final BatchResult<O>[] results = new BatchResult[inputs.size()];
+        if (inputs.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        int chunks = Math.min(inputs.size(), Runtime.getRuntime().availableProcessors() * CHUNKS_PER_CORE);
+        int chunkSize = (inputs.size() + chunks - 1) / chunks;
+        chunks = (inputs.size() + chunkSize - 1) / chunkSize;
+        List<FutureTask<Void>> tasks = new ArrayList<>(chunks);
+
+        for (int start = 0; start < inputs.size(); start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(start + chunkSize, inputs.size());
+            FutureTask<Void> chunk = new FutureTask<>(() -> {
+                for (int i = from; i < to; i++) {
+                    results[i] = apply(function, inputs.get(i), failureMessage);
+                }
+            }, null);
+            tasks.add(chunk);
+
+            try {
+                executor.execute(chunk);
+            } catch (RejectedExecutionException e) {
+                // Saturated executor: the chunk is run on the calling thread below
+            }
+        }
+
+        // A FutureTask runs at most once, so this only runs chunks that have not been started
+        for (FutureTask<Void> chunk : tasks) {
+            chunk.run();
+        }
+        try {
+            for (FutureTask<Void> chunk : tasks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XmlMappingException("Interrupted while waiting for batch to complete", e);
+        } catch (ExecutionException e) {
+            // apply() captures every failure, so this is not expected
+            throw new XmlMappingException("Batch chunk failed: " + e.getCause(), e.getCause());
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private static <I, O> BatchResult<O> apply(Function<I, O> function, I input, String failureMessage) {
+        try {
+            return BatchResult.success(function.apply(input));
+        } catch (XmlMappingException e) {
+            return BatchResult.failure(e);
+        } catch (Throwable e) {
+            // Errors are captured too, so a result is never left empty
+            return BatchResult.failure(new XmlMappingException(failureMessage + ": " + e, e));
+        }
+    }
+}
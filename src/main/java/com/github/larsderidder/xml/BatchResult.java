@@ -0,0 +1,69 @@
+package com.github.larsderidder.xml;
+
+/**
+ * Outcome of one item in a batch operation: either a value or the failure for that item.
+ *
+ * @param <T> the value type
+ */
+public class BatchResult<T> {
+
+    private final T value;
+    private final XmlMappingException error;
+
+    private BatchResult(T value, XmlMappingException error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Creates the result of an item that succeeded.
+     *
+     * @param <T> the value type
+     * @param value the value produced for the item
+     * @return a successful result
+     */
+    public static <T> BatchResult<T> success(T value) {
+        return new BatchResult<>(value, null);
+    }
+
+    /**
+     * Creates the result of an item that failed.
+     *
+     * @param <T> the value type
+     * @param error the failure of the item
+     * @return a failed result
+     */
+    public static <T> BatchResult<T> failure(XmlMappingException error) {
+        return new BatchResult<>(null, error);
+    }
+
+    /**
+     * @return true if the item succeeded and {@link #getValue()} holds its value
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return the value of a successful item
+     * @throws XmlMappingException the failure of this item, if it failed
+     */
+    public T getValue() {
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+
+    /**
+     * @return the failure of this item, or null if it succeeded
+     */
+    public XmlMappingException getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "success" : "failure: " + error.getMessage();
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.larsderidder.xml;
+
+/**
+ * Reports marshaling and unmarshaling failures before XmlMapper rethrows them as
+ * {@link XmlMappingException}. Implementations must be thread-safe.
+ *
+ * @see XmlMapper.Builder#failureReporter(FailureReporter)
+ */
+public interface FailureReporter {
+
+    /**
+     * Reports a failure.
+     *
+     * @param message description of the failed operation
+     * @param cause the underlying exception
+     */
+    void report(String message, Throwable cause);
+
+    /**
+     * Logs every failure at ERROR level with its stack trace. This is the default.
+     *
+     * @return a reporter logging all failures
+     */
+    static FailureReporter logAll() {
+        return FailureReporters.LOG_ALL;
+    }
+
+    /**
+     * Logs at most the given number of failures per second with their stack trace, and reports how
+     * many failures were suppressed in between.
+     *
+     * @param maxPerSecond the maximum number of failures logged per second
+     * @return a rate-limited reporter
+     */
+    static FailureReporter rateLimited(int maxPerSecond) {
+        return new FailureReporters.RateLimited(maxPerSecond);
+    }
+
+    /**
+     * Logs every failure message, but includes the stack trace for only one in every {@code n} failures.
+     *
+     * @param n the sampling interval for stack traces
+     * @return a sampling reporter
+     */
+    static FailureReporter sampled(int n) {
+        return new FailureReporters.Sampled(n);
+    }
+
+    /**
+     * Does not log failures; they are only rethrown to the caller.
+     *
+     * @return a reporter ignoring all failures
+     */
+    static FailureReporter silent() {
+        return FailureReporters.SILENT;
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.larsderidder.xml;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.bind.JAXBException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Built-in {@link FailureReporter} implementations. Failures are logged under the XmlMapper category.
+ */
+final class FailureReporters {
+
+    private static final Logger LOG = LoggerFactory.getLogger(XmlMapper.class);
+
+    static final FailureReporter LOG_ALL = (message, cause) -> LOG.error("{}: {}", message, message(cause), cause);
+
+    static final FailureReporter SILENT = (message, cause) -> {
+    };
+
+    /**
+     * Logs under the XmlMapper category at ERROR level.
+     */
+    static final Sink LOG_SINK = (message, cause) -> {
+        if (cause != null) {
+            LOG.error(message, cause);
+        } else {
+            LOG.error(message);
+        }
+    };
+
+    private FailureReporters() {
+    }
+
+    /**
+     * Returns the message of an exception. JAXB exceptions wrapping a parser exception often have no
+     * message of their own, in which case the parser's message is returned.
+     */
+    static String message(Throwable cause) {
+        if (cause.getMessage() == null && cause instanceof JAXBException
+                && ((JAXBException) cause).getLinkedException() != null) {
+            return ((JAXBException) cause).getLinkedException().getMessage();
+        }
+        return cause.getMessage();
+    }
+
+    /**
+     * Destination of the reports of the built-in reporters, replaceable in tests.
+     */
+    interface Sink {
+
+        /**
+         * @param message the complete log message
+         * @param cause the exception to log with its stack trace, or null to log the message only
+         */
+        void log(String message, Throwable cause);
+    }
+
+    /**
+     * Logs up to a fixed number of failures per one-second window.
+     */
+    static final class RateLimited implements FailureReporter {
+
+        private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+        private final int maxPerSecond;
+        private final LongSupplier clock;
+        private final Sink sink;
+        private final AtomicLong windowStart;
+        private final AtomicLong windowCount = new AtomicLong();
+        private final AtomicLong suppressed = new AtomicLong();
+
+        RateLimited(int maxPerSecond) {
+            this(maxPerSecond, System::nanoTime, LOG_SINK);
+        }
+
+        /**
+         * @param clock supplies the current time in nanoseconds
+         * @param sink receives the failures that are logged
+         */
+        RateLimited(int maxPerSecond, LongSupplier clock, Sink sink) {
+            if (maxPerSecond <= 0) {
+                throw new IllegalArgumentException("maxPerSecond must be positive: " + maxPerSecond);
+            }
+            this.maxPerSecond = maxPerSecond;
+            this.clock = clock;
+            this.sink = sink;
+            this.windowStart = new AtomicLong(clock.getAsLong());
+        }
+
+        @Override
+        public void report(String message, Throwable cause) {
+            long now = clock.getAsLong();
+            long start = windowStart.get();
+            if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+                windowCount.set(0);
+            }
+
+            if (windowCount.incrementAndGet() > maxPerSecond) {
+                suppressed.incrementAndGet();
+                return;
+            }
+
+            long skipped = suppressed.getAndSet(0);
+            if (skipped > 0) {
+                sink.log(message + ": " + message(cause) + " (" + skipped + " similar failures suppressed)", cause);
+            } else {
+                sink.log(message + ": " + message(cause), cause);
+            }
+        }
+    }
+
+    /**
+     * Logs every failure, with a stack trace for one in every n.
+     */
+    static final class Sampled implements FailureReporter {
+
+        private final int n;
+        private final Sink sink;
+        private final AtomicLong count = new AtomicLong();
+
+        Sampled(int n) {
+            this(n, LOG_SINK);
+        }
+
+        /**
+         * @param sink receives every failure, with the cause for sampled ones
+         */
+        Sampled(int n, Sink sink) {
+            if (n <= 0) {
+                throw new IllegalArgumentException("n must be positive: " + n);
+            }
+            this.n = n;
+            this.sink = sink;
+        }
+
+        @Override
+        public void report(String message, Throwable cause) {
+            boolean withStackTrace = count.getAndIncrement() % n == 0;
+            sink.log(message + ": " + message(cause), withStackTrace ? cause : null);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.larsderidder.xml;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a model package for which {@link XmlAccessorProcessor} generates a {@code JaxbAccessorFactory},
+ * letting JAXB read and write the package's fields and properties without reflection. Annotate the
+ * package's {@code package-info.java} together with the JAXB annotation that installs the factory:
+ * <pre>
+ * &#64;GenerateAccessors
+ * &#64;XmlAccessorFactory(JaxbAccessorFactory.class)
+ * package com.example.model;
+ * </pre>
+ * and build the mapper with {@link XmlMapper.Builder#generatedAccessors(boolean)}.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.PACKAGE)
+public @interface GenerateAccessors {
+}
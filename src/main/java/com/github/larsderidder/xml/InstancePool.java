@@ -0,0 +1,112 @@
+package com.github.larsderidder.xml;
+
+import javax.xml.bind.JAXBException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded, thread-safe pool of JAXB helper objects (marshallers, unmarshallers) that are
+ * expensive to create but not safe to share between threads.
+ * <p>
+ * Each thread keeps one instance in a thread-local slot as a fast path; further instances
+ * are kept in a shared queue of at most {@code maxIdle} entries. Instances are reset before
+ * they are returned to the pool so no per-call state leaks into the next borrower.
+ *
+ * @param <T> the pooled type
+ */
+final class InstancePool<T> {
+
+    /**
+     * Creates new pool instances.
+     */
+    interface Factory<T> {
+        T create() throws JAXBException;
+    }
+
+    /**
+     * Clears per-call state from an instance before it is pooled again.
+     */
+    interface Reset<T> {
+        void reset(T instance) throws JAXBException;
+    }
+
+    private final Factory<T> factory;
+    private final Reset<T> reset;
+    private final BlockingQueue<T> idle;
+    private final ThreadLocal<T> local;
+
+    /**
+     * @param factory creates instances when the pool is empty
+     * @param reset clears per-call state on release
+     * @param maxIdle maximum number of idle instances shared between threads, or 0 to disable pooling
+     */
+    InstancePool(Factory<T> factory, Reset<T> reset, int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Pool size must not be negative: " + maxIdle);
+        }
+        this.factory = factory;
+        this.reset = reset;
+        this.idle = maxIdle > 0 ? new ArrayBlockingQueue<>(maxIdle) : null;
+        this.local = maxIdle > 0 ? new ThreadLocal<>() : null;
+    }
+
+    /**
+     * Takes an instance from the pool, creating a new one if none is available.
+     */
+    T borrow() throws JAXBException {
+        if (idle == null) {
+            return factory.create();
+        }
+
+        T instance = local.get();
+        if (instance != null) {
+            local.set(null);
+            return instance;
+        }
+
+        instance = idle.poll();
+        return instance != null ? instance : factory.create();
+    }
+
+    /**
+     * Returns an instance to the pool. Instances that cannot be reset or do not fit are dropped.
+     */
+    void release(T instance) {
+        if (idle == null || instance == null) {
+            return;
+        }
+
+        try {
+            reset.reset(instance);
+        } catch (JAXBException | RuntimeException e) {
+            return;
+        }
+
+        if (local.get() == null) {
+            local.set(instance);
+        } else {
+            idle.offer(instance);
+        }
+    }
+
+    /**
+     * Creates instances until the shared queue holds {@code count} idle ones, or is full.
+     */
+    void prefill(int count) throws JAXBException {
+        if (idle == null) {
+            return;
+        }
+        while (idle.size() < count && idle.remainingCapacity() > 0) {
+            if (!idle.offer(factory.create())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of instances currently idle in the shared queue.
+     */
+    int idleCount() {
+        return idle != null ? idle.size() : 0;
+    }
+}
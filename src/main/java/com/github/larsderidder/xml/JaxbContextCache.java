@@ -0,0 +1,149 @@
+package com.github.larsderidder.xml;
+
+import com.sun.xml.bind.api.JAXBRIContext;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide cache of JAXBContext instances keyed by context path and class loader.
+ * <p>
+ * JAXBContext is thread-safe but expensive to create, so mappers constructed for the same
+ * package share a single context. Class loaders are held weakly and contexts softly, so
+ * contexts of undeployed applications do not keep their class loader alive.
+ */
+public final class JaxbContextCache {
+
+    private static final Map<ClassLoader, ConcurrentMap<String, SoftReference<JAXBContext>>> CONTEXTS =
+            new WeakHashMap<>();
+
+    private static final Map<JAXBContext, RootElements> ROOT_ELEMENTS = new WeakHashMap<>();
+
+    private static final String ACCESSOR_FACTORIES_SUFFIX = "#accessorFactories";
+
+    private JaxbContextCache() {
+    }
+
+    /**
+     * Returns the shared JAXBContext for the given context path, using the thread context class loader.
+     *
+     * @param contextPath colon-separated list of packages containing JAXB-annotated classes
+     * @return the cached or newly created context
+     * @throws XmlMappingException if JAXBContext creation fails
+     */
+    public static JAXBContext getContext(String contextPath) {
+        return getContext(contextPath, defaultClassLoader());
+    }
+
+    /**
+     * Returns the shared JAXBContext for the given context path and class loader.
+     *
+     * @param contextPath colon-separated list of packages containing JAXB-annotated classes
+     * @param classLoader the class loader used to locate the classes
+     * @return the cached or newly created context
+     * @throws XmlMappingException if JAXBContext creation fails
+     */
+    public static JAXBContext getContext(String contextPath, ClassLoader classLoader) {
+        return getContext(contextPath, classLoader, false);
+    }
+
+    /**
+     * Returns the shared JAXBContext for the given context path and options, using the thread
+     * context class loader.
+     *
+     * @param accessorFactories whether to honor {@code @XmlAccessorFactory} annotations, such as
+     *                          those referring to accessors generated by {@link XmlAccessorProcessor}
+     */
+    static JAXBContext getContext(String contextPath, boolean accessorFactories) {
+        return getContext(contextPath, defaultClassLoader(), accessorFactories);
+    }
+
+    private static JAXBContext getContext(final String contextPath, final ClassLoader classLoader,
+                                          final boolean accessorFactories) {
+        if (contextPath == null) {
+            throw new IllegalArgumentException("contextPath must not be null");
+        }
+
+        ConcurrentMap<String, SoftReference<JAXBContext>> contexts = contexts(classLoader);
+
+        // Contexts honoring accessor factories bind differently, so they are cached apart
+        final String key = accessorFactories ? contextPath + ACCESSOR_FACTORIES_SUFFIX : contextPath;
+        SoftReference<JAXBContext> cached = contexts.get(key);
+        JAXBContext context = cached != null ? cached.get() : null;
+        if (context != null) {
+            return context;
+        }
+
+        final JAXBContext[] result = new JAXBContext[1];
+        contexts.compute(key, (k, existing) -> {
+            JAXBContext current = existing != null ? existing.get() : null;
+            result[0] = current != null ? current : createContext(contextPath, classLoader, accessorFactories);
+            return current != null ? existing : new SoftReference<>(result[0]);
+        });
+        return result[0];
+    }
+
+    /**
+     * Returns the root element table of a context, shared by all mappers using it, whether or not the
+     * context itself came from this cache. The table is released together with the context.
+     */
+    static RootElements rootElements(JAXBContext context) {
+        RootElements rootElements;
+        synchronized (ROOT_ELEMENTS) {
+            rootElements = ROOT_ELEMENTS.get(context);
+        }
+        if (rootElements != null) {
+            return rootElements;
+        }
+
+        // Built outside the lock; a concurrent duplicate is discarded
+        rootElements = RootElements.of(context);
+        synchronized (ROOT_ELEMENTS) {
+            RootElements existing = ROOT_ELEMENTS.putIfAbsent(context, rootElements);
+            return existing != null ? existing : rootElements;
+        }
+    }
+
+    /**
+     * Removes all cached contexts. Mappers that already hold a context keep using it.
+     */
+    public static void clear() {
+        synchronized (CONTEXTS) {
+            CONTEXTS.clear();
+        }
+    }
+
+    private static ConcurrentMap<String, SoftReference<JAXBContext>> contexts(ClassLoader classLoader) {
+        synchronized (CONTEXTS) {
+            ConcurrentMap<String, SoftReference<JAXBContext>> contexts = CONTEXTS.get(classLoader);
+            if (contexts == null) {
+                contexts = new ConcurrentHashMap<>();
+                CONTEXTS.put(classLoader, contexts);
+            }
+            return contexts;
+        }
+    }
+
+    private static ClassLoader defaultClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : JaxbContextCache.class.getClassLoader();
+    }
+
+    private static JAXBContext createContext(String contextPath, ClassLoader classLoader,
+                                             boolean accessorFactories) {
+        Map<String, Object> properties = accessorFactories
+                ? Collections.singletonMap(JAXBRIContext.XMLACCESSORFACTORY_SUPPORT, Boolean.TRUE)
+                : Collections.emptyMap();
+        try {
+            return JAXBContext.newInstance(contextPath, classLoader, properties);
+        } catch (JAXBException e) {
+            throw new XmlMappingException("Failed to create JAXB context for package: " + contextPath, e);
+        }
+    }
+}
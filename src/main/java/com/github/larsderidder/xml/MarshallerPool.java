@@ -0,0 +1,121 @@
+package com.github.larsderidder.xml;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Marshaller pools keyed by the set of marshaller properties, so that marshallers configured
+ * for one output mode (formatted, fragment, encoding) are only reused for that same mode.
+ */
+final class MarshallerPool {
+
+    /**
+     * Properties for compact output with an XML declaration.
+     */
+    static final Map<String, Object> COMPACT = Collections.emptyMap();
+
+    /**
+     * Properties for indented output with an XML declaration.
+     */
+    static final Map<String, Object> FORMATTED = properties(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+
+    /**
+     * Properties for compact output without an XML declaration, for writing into a larger document.
+     */
+    static final Map<String, Object> FRAGMENT = properties(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+
+    private final Supplier<JAXBContext> context;
+    private final int maxIdle;
+    private final ConcurrentMap<Map<String, Object>, InstancePool<Marshaller>> pools = new ConcurrentHashMap<>();
+
+    /**
+     * @param context supplies the context when the first marshaller is created
+     * @param maxIdle maximum number of idle marshallers per output mode
+     */
+    MarshallerPool(Supplier<JAXBContext> context, int maxIdle) {
+        this.context = context;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Creates an immutable property map usable as pool key.
+     *
+     * @param keysAndValues alternating property names and values
+     */
+    static Map<String, Object> properties(Object... keysAndValues) {
+        Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            properties.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return Collections.unmodifiableMap(properties);
+    }
+
+    /**
+     * Takes a marshaller configured with the given properties.
+     */
+    Marshaller borrow(Map<String, Object> properties) throws JAXBException {
+        return pool(properties).borrow();
+    }
+
+    /**
+     * Returns a marshaller previously borrowed with the same properties.
+     */
+    void release(Map<String, Object> properties, Marshaller marshaller) {
+        if (marshaller != null) {
+            pool(properties).release(marshaller);
+        }
+    }
+
+    /**
+     * Creates idle marshallers with the given properties until the shared queue holds {@code count}.
+     */
+    void prefill(Map<String, Object> properties, int count) throws JAXBException {
+        pool(properties).prefill(count);
+    }
+
+    /**
+     * Returns the number of marshallers idle in the shared queues of all output modes.
+     */
+    int idleCount() {
+        int idle = 0;
+        for (InstancePool<Marshaller> pool : pools.values()) {
+            idle += pool.idleCount();
+        }
+        return idle;
+    }
+
+    private InstancePool<Marshaller> pool(final Map<String, Object> properties) {
+        InstancePool<Marshaller> pool = pools.get(properties);
+        if (pool == null) {
+            InstancePool<Marshaller> created = new InstancePool<>(() -> create(properties),
+                    MarshallerPool::reset, maxIdle);
+            pool = pools.putIfAbsent(properties, created);
+            if (pool == null) {
+                pool = created;
+            }
+        }
+        return pool;
+    }
+
+    private Marshaller create(Map<String, Object> properties) throws JAXBException {
+        Marshaller marshaller = context.get().createMarshaller();
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            marshaller.setProperty(property.getKey(), property.getValue());
+        }
+        return marshaller;
+    }
+
+    private static void reset(Marshaller marshaller) throws JAXBException {
+        marshaller.setSchema(null);
+        marshaller.setListener(null);
+        // The event handler is left alone: setting null installs DefaultValidationEventHandler, which
+        // prints every failure. Callers that install a handler restore the previous one themselves.
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.larsderidder.xml;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records XmlMapper metrics in a Micrometer {@link MeterRegistry}. Requires
+ * {@code io.micrometer:micrometer-core} on the classpath.
+ * <p>
+ * Meters, all tagged with the root {@code type} and the tags given at construction:
+ * <ul>
+ *     <li>{@code xml.mapper.unmarshal} and {@code xml.mapper.marshal}: timers with a percentile
+ *     histogram, tagged with {@code outcome} {@code success} or {@code failure}</li>
+ *     <li>{@code xml.mapper.unmarshal.size} and {@code xml.mapper.marshal.size}: document sizes in
+ *     bytes (characters for String input), where known</li>
+ * </ul>
+ * Untagged by type: {@code xml.mapper.validation.failures} and {@code xml.mapper.validation.errors}
+ * counters, and the {@code xml.mapper.pool.idle} (tagged with {@code pool}), {@code xml.mapper.pool.size}
+ * and {@code xml.mapper.async.queued} gauges. Use one listener per mapper, with distinguishing tags if
+ * several mappers share a registry.
+ */
+public class MicrometerMetricsListener implements XmlMetricsListener {
+
+    private final MeterRegistry registry;
+    private final Tags tags;
+    private final Counter validationFailures;
+    private final Counter validationErrors;
+    private final ConcurrentMap<Class<?>, TypeMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry the registry to record in
+     */
+    public MicrometerMetricsListener(MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * @param registry the registry to record in
+     * @param tags tags added to all meters, for example to tell several mappers apart
+     */
+    public MicrometerMetricsListener(MeterRegistry registry, Iterable<Tag> tags) {
+        this.registry = registry;
+        this.tags = Tags.of(tags);
+        this.validationFailures = Counter.builder("xml.mapper.validation.failures")
+                .description("Documents failing schema validation")
+                .tags(this.tags)
+                .register(registry);
+        this.validationErrors = Counter.builder("xml.mapper.validation.errors")
+                .description("Schema validation problems reported")
+                .tags(this.tags)
+                .register(registry);
+    }
+
+    @Override
+    public void onUnmarshal(Class<?> type, long durationNanos, long inputSize, boolean success) {
+        TypeMeters typeMeters = meters(type);
+        (success ? typeMeters.unmarshalSuccess : typeMeters.unmarshalFailure).record(durationNanos, TimeUnit.NANOSECONDS);
+        if (inputSize >= 0) {
+            typeMeters.unmarshalSize.record(inputSize);
+        }
+    }
+
+    @Override
+    public void onMarshal(Class<?> type, long durationNanos, long outputSize, boolean success) {
+        TypeMeters typeMeters = meters(type);
+        (success ? typeMeters.marshalSuccess : typeMeters.marshalFailure).record(durationNanos, TimeUnit.NANOSECONDS);
+        if (outputSize >= 0 && success) {
+            typeMeters.marshalSize.record(outputSize);
+        }
+    }
+
+    @Override
+    public void onValidationFailure(int errorCount) {
+        validationFailures.increment();
+        validationErrors.increment(errorCount);
+    }
+
+    @Override
+    public void bindPools(PoolStats pools) {
+        Gauge.builder("xml.mapper.pool.idle", pools, PoolStats::getIdleUnmarshallers)
+                .description("Idle instances in the shared pool")
+                .tags(tags).tag("pool", "unmarshaller")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("xml.mapper.pool.idle", pools, PoolStats::getIdleMarshallers)
+                .description("Idle instances in the shared pool")
+                .tags(tags).tag("pool", "marshaller")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("xml.mapper.pool.size", pools, PoolStats::getPoolSize)
+                .description("Maximum idle instances in the shared pool")
+                .tags(tags)
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("xml.mapper.async.queued", pools, PoolStats::getAsyncQueueSize)
+                .description("Tasks waiting for the asynchronous executor")
+                .tags(tags)
+                .strongReference(true)
+                .register(registry);
+    }
+
+    private TypeMeters meters(Class<?> type) {
+        TypeMeters typeMeters = meters.get(type);
+        if (typeMeters == null) {
+            typeMeters = meters.computeIfAbsent(type, TypeMeters::new);
+        }
+        return typeMeters;
+    }
+
+    /**
+     * Meters for one root type, resolved once so recording does not look them up in the registry.
+     */
+    private final class TypeMeters {
+
+        private final Timer unmarshalSuccess;
+        private final Timer unmarshalFailure;
+        private final Timer marshalSuccess;
+        private final Timer marshalFailure;
+        private final DistributionSummary unmarshalSize;
+        private final DistributionSummary marshalSize;
+
+        TypeMeters(Class<?> type) {
+            Tags typeTags = tags.and("type", type.getName());
+            unmarshalSuccess = timer("xml.mapper.unmarshal", typeTags, "success");
+            unmarshalFailure = timer("xml.mapper.unmarshal", typeTags, "failure");
+            marshalSuccess = timer("xml.mapper.marshal", typeTags, "success");
+            marshalFailure = timer("xml.mapper.marshal", typeTags, "failure");
+            unmarshalSize = size("xml.mapper.unmarshal.size", typeTags);
+            marshalSize = size("xml.mapper.marshal.size", typeTags);
+        }
+
+        private Timer timer(String name, Tags typeTags, String outcome) {
+            return Timer.builder(name)
+                    .tags(typeTags).tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+
+        private DistributionSummary size(String name, Tags typeTags) {
+            return DistributionSummary.builder(name)
+                    .baseUnit("bytes")
+                    .tags(typeTags)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.larsderidder.xml;
+
+/**
+ * Listener recording nothing. XmlMapper recognizes this instance and skips measuring altogether.
+ */
+final class NoopMetricsListener implements XmlMetricsListener {
+
+    static final NoopMetricsListener INSTANCE = new NoopMetricsListener();
+
+    private NoopMetricsListener() {
+    }
+
+    @Override
+    public void onUnmarshal(Class<?> type, long durationNanos, long inputSize, boolean success) {
+    }
+
+    @Override
+    public void onMarshal(Class<?> type, long durationNanos, long outputSize, boolean success) {
+    }
+
+    @Override
+    public void onValidationFailure(int errorCount) {
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.larsderidder.xml;
+
+import javax.xml.bind.JAXBElement;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reusable per-thread output buffers for marshaling to a String or byte array.
+ * <p>
+ * The typical output size is remembered per root type, so a fresh or reused buffer is sized
+ * once up front instead of growing repeatedly while a large document is written. Buffers that
+ * grew beyond {@link #MAX_RETAINED_CAPACITY} are not kept, so one exceptionally large document
+ * does not pin its memory to the thread.
+ */
+final class OutputBuffers {
+
+    static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private final ThreadLocal<Buffer> local = new ThreadLocal<>();
+    private final ConcurrentMap<Class<?>, Integer> sizeHints = new ConcurrentHashMap<>();
+
+    /**
+     * Takes an empty buffer sized for documents of the given object's type.
+     */
+    Buffer borrow(Object object) {
+        int hint = sizeHint(type(object));
+
+        Buffer buffer = local.get();
+        if (buffer == null) {
+            return new Buffer(hint);
+        }
+
+        local.set(null);
+        buffer.reset();
+        buffer.ensureCapacity(hint);
+        return buffer;
+    }
+
+    /**
+     * Records the size written for the object's type and keeps the buffer for reuse by this thread.
+     */
+    void release(Object object, Buffer buffer) {
+        Class<?> type = type(object);
+        int size = buffer.size();
+        Integer previous = sizeHints.get(type);
+
+        // Grow immediately to the largest recent size, shrink slowly when documents get smaller
+        int hint = previous == null ? size : Math.max(size, previous - previous / 8);
+        if (previous == null || hint != previous) {
+            sizeHints.put(type, Math.min(hint, MAX_RETAINED_CAPACITY));
+        }
+
+        if (buffer.capacity() <= MAX_RETAINED_CAPACITY) {
+            local.set(buffer);
+        }
+    }
+
+    private int sizeHint(Class<?> type) {
+        Integer hint = sizeHints.get(type);
+        return hint != null ? hint + hint / 8 : DEFAULT_CAPACITY;
+    }
+
+    /**
+     * Returns the root type of an object, unwrapping JAXBElement.
+     */
+    static Class<?> type(Object object) {
+        if (object instanceof JAXBElement) {
+            return ((JAXBElement<?>) object).getDeclaredType();
+        }
+        return object != null ? object.getClass() : Object.class;
+    }
+
+    /**
+     * Byte array output stream that exposes its capacity and decodes without an extra copy.
+     */
+    static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer(int capacity) {
+            super(Math.max(capacity, 32));
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        void ensureCapacity(int capacity) {
+            if (buf.length < capacity) {
+                buf = new byte[capacity];
+            }
+        }
+
+        String toUtf8String() {
+            return new String(buf, 0, count, UTF_8);
+        }
+    }
+}
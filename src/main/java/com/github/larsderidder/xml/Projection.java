@@ -0,0 +1,56 @@
+package com.github.larsderidder.xml;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Fields bound from a document by {@link XmlMapper#project(String, ProjectionSpec)}. Fields whose
+ * path did not occur in the document are absent.
+ */
+public class Projection {
+
+    private final Map<String, Object> values;
+
+    Projection(Map<String, Object> values) {
+        this.values = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @param name the field name
+     * @return true if the field was found in the document
+     */
+    public boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    /**
+     * @param name the name of a text or attribute field
+     * @return the text, or null if the field was not found
+     */
+    public String getText(String name) {
+        return get(name, String.class);
+    }
+
+    /**
+     * @param <T> the field type
+     * @param name the field name
+     * @param type the expected type of the field
+     * @return the bound value, or null if the field was not found
+     * @throws ClassCastException if the value is not of the expected type
+     */
+    public <T> T get(String name, Class<T> type) {
+        return type.cast(values.get(name));
+    }
+
+    /**
+     * @return all fields found, in document order
+     */
+    public Map<String, Object> asMap() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "Projection" + values;
+    }
+}
@@ -0,0 +1,300 @@
+package com.github.larsderidder.xml;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parts of a document to bind with {@link XmlMapper#project(String, ProjectionSpec)}. Each
+ * field names an absolute path from the root element, for example {@code /order/header/id} or
+ * {@code /order/@version} for an attribute, and is bound either to the text of the element, or to a
+ * JAXB object unmarshaled from it. Steps are matched on their local name; a step in the form
+ * {@code {uri}local} also has to match the namespace. The same element cannot be addressed by both
+ * forms in one spec.
+ * <p>
+ * Only the first match of each path is bound. Elements outside the requested paths are skipped
+ * without being bound, and reading stops as soon as every field has been found. A spec is
+ * immutable and can be shared between threads.
+ */
+public final class ProjectionSpec {
+
+    private final Node root;
+    private final int size;
+
+    private ProjectionSpec(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Creates a builder for a new spec.
+     *
+     * @return an empty builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Reads the document from the reader's current position, binding the requested fields.
+     */
+    Projection project(XmlMapper mapper, XMLStreamReader reader) throws XMLStreamException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        Deque<Node> parents = new ArrayDeque<>();
+        Node node = root;
+
+        int event = reader.getEventType();
+        while (values.size() < size) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                Node child = node.child(reader);
+                if (child == null || child.isComplete(values)) {
+                    skipElement(reader);
+                } else {
+                    for (Field field : child.attributes) {
+                        String value = reader.getAttributeValue(field.attribute.getNamespaceURI().isEmpty()
+                                ? null : field.attribute.getNamespaceURI(), field.attribute.getLocalPart());
+                        if (value != null) {
+                            values.putIfAbsent(field.name, value);
+                        }
+                    }
+
+                    if (child.text != null) {
+                        values.putIfAbsent(child.text.name, reader.getElementText());
+                    } else if (child.object != null) {
+                        values.putIfAbsent(child.object.name, mapper.unmarshal(reader, child.object.type));
+                        // the reader is already past the end tag
+                        event = reader.getEventType();
+                        continue;
+                    } else {
+                        parents.push(node);
+                        node = child;
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                node = parents.pop();
+            } else if (event == XMLStreamConstants.END_DOCUMENT) {
+                break;
+            }
+
+            if (!reader.hasNext()) {
+                break;
+            }
+            event = reader.next();
+        }
+        return new Projection(values);
+    }
+
+    /**
+     * Skips the element the reader is positioned on, leaving the reader on its end tag.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectionSpec" + root.fieldNames;
+    }
+
+    /**
+     * One requested field: text, an object of the given type, or an attribute value.
+     */
+    private static final class Field {
+
+        final String name;
+        final Class<?> type;
+        final QName attribute;
+
+        Field(String name, Class<?> type, QName attribute) {
+            this.name = name;
+            this.type = type;
+            this.attribute = attribute;
+        }
+    }
+
+    /**
+     * A step in the tree of requested paths, with the fields bound at that element.
+     */
+    private static final class Node {
+
+        final Map<String, Node> localChildren = new HashMap<>();
+        final Map<QName, Node> qualifiedChildren = new HashMap<>();
+        final List<Field> attributes = new ArrayList<>();
+        final Set<String> fieldNames = new LinkedHashSet<>();
+        Field text;
+        Field object;
+
+        Node child(XMLStreamReader reader) {
+            Node child = qualifiedChildren.isEmpty() ? null : qualifiedChildren.get(reader.getName());
+            return child != null ? child : localChildren.get(reader.getLocalName());
+        }
+
+        Node getOrAddChild(QName step, String path) {
+            boolean qualified = !step.getNamespaceURI().isEmpty();
+            boolean conflict = qualified ? localChildren.containsKey(step.getLocalPart())
+                    : qualifiedChildren.keySet().stream().anyMatch(q -> q.getLocalPart().equals(step.getLocalPart()));
+            if (conflict) {
+                throw new IllegalArgumentException("Path " + path + " mixes qualified and unqualified steps for "
+                        + step.getLocalPart());
+            }
+            Map<Object, Node> children = step.getNamespaceURI().isEmpty()
+                    ? cast(localChildren) : cast(qualifiedChildren);
+            Object key = step.getNamespaceURI().isEmpty() ? step.getLocalPart() : step;
+            return children.computeIfAbsent(key, k -> new Node());
+        }
+
+        boolean hasChildren() {
+            return !localChildren.isEmpty() || !qualifiedChildren.isEmpty();
+        }
+
+        boolean isComplete(Map<String, Object> values) {
+            return values.keySet().containsAll(fieldNames);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<Object, Node> cast(Map<?, Node> map) {
+            return (Map<Object, Node>) map;
+        }
+    }
+
+    /**
+     * Builder for projection specs.
+     */
+    public static final class Builder {
+
+        private final Node root = new Node();
+        private final Set<String> names = new LinkedHashSet<>();
+        private boolean built;
+
+        private Builder() {
+        }
+
+        /**
+         * Binds the text of a text-only element, or the value of an attribute when the last step of
+         * the path starts with {@code @}.
+         *
+         * @param name the name of the field in the {@link Projection}
+         * @param path the absolute path, such as {@code /order/header/id}
+         * @return this builder
+         */
+        public Builder text(String name, String path) {
+            return add(name, path, null);
+        }
+
+        /**
+         * Binds the element at a path to an object of one of the mapper's JAXB classes.
+         *
+         * @param name the name of the field in the {@link Projection}
+         * @param path the absolute path, such as {@code /order/customer}
+         * @param type the class to unmarshal the element to
+         * @return this builder
+         */
+        public Builder object(String name, String path, Class<?> type) {
+            if (type == null) {
+                throw new IllegalArgumentException("Type must not be null for field " + name);
+            }
+            return add(name, path, type);
+        }
+
+        /**
+         * Creates the spec. The builder cannot be changed afterwards.
+         *
+         * @return the immutable spec
+         * @throws IllegalStateException if no field has been added
+         */
+        public ProjectionSpec build() {
+            if (names.isEmpty()) {
+                throw new IllegalStateException("Projection needs at least one field");
+            }
+            built = true;
+            return new ProjectionSpec(root, names.size());
+        }
+
+        private Builder add(String name, String path, Class<?> type) {
+            if (built) {
+                throw new IllegalStateException("Projection spec has already been built");
+            }
+            if (!names.add(name)) {
+                throw new IllegalArgumentException("Duplicate projection field: " + name);
+            }
+            if (path == null || !path.startsWith("/") || path.length() < 2) {
+                throw new IllegalArgumentException("Projection path must be absolute: " + path);
+            }
+
+            List<String> steps = split(path);
+            String last = steps.get(steps.size() - 1);
+            boolean attribute = last.startsWith("@");
+            if (attribute && (type != null || steps.size() < 2)) {
+                throw new IllegalArgumentException("Attributes can only be bound as text of an element: " + path);
+            }
+
+            Node node = root;
+            node.fieldNames.add(name);
+            int elementSteps = attribute ? steps.size() - 1 : steps.size();
+            for (int i = 0; i < elementSteps; i++) {
+                if (node.text != null || node.object != null) {
+                    throw new IllegalArgumentException("Path " + path + " is inside the bound field "
+                            + (node.text != null ? node.text.name : node.object.name));
+                }
+                node = node.getOrAddChild(step(steps.get(i), path), path);
+                node.fieldNames.add(name);
+            }
+
+            if (attribute) {
+                node.attributes.add(new Field(name, null, step(last.substring(1), path)));
+            } else if (node.text != null || node.object != null || node.hasChildren()) {
+                throw new IllegalArgumentException("Path " + path + " overlaps with another field");
+            } else if (type == null) {
+                node.text = new Field(name, null, null);
+            } else {
+                node.object = new Field(name, type, null);
+            }
+            return this;
+        }
+
+        /**
+         * Splits a path into its steps, ignoring slashes inside namespace URIs.
+         */
+        private static List<String> split(String path) {
+            List<String> steps = new ArrayList<>();
+            int start = 1;
+            boolean inUri = false;
+            for (int i = 1; i < path.length(); i++) {
+                char c = path.charAt(i);
+                if (c == '{' || c == '}') {
+                    inUri = c == '{';
+                } else if (c == '/' && !inUri) {
+                    steps.add(path.substring(start, i));
+                    start = i + 1;
+                }
+            }
+            steps.add(path.substring(start));
+            return steps;
+        }
+
+        private static QName step(String step, String path) {
+            if (step.isEmpty()) {
+                throw new IllegalArgumentException("Empty step in projection path: " + path);
+            }
+            return QName.valueOf(step);
+        }
+    }
+}
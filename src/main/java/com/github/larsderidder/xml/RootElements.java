@@ -0,0 +1,203 @@
+package com.github.larsderidder.xml;
+
+import com.sun.xml.bind.v2.model.runtime.RuntimeClassInfo;
+import com.sun.xml.bind.v2.model.runtime.RuntimeElementInfo;
+import com.sun.xml.bind.v2.model.runtime.RuntimeEnumLeafInfo;
+import com.sun.xml.bind.v2.model.runtime.RuntimeTypeInfoSet;
+import com.sun.xml.bind.v2.runtime.JAXBContextImpl;
+import com.sun.xml.bind.v2.util.XmlFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBContext;
+import javax.xml.namespace.QName;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamReader;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Table of the global elements of a JAXB model, resolving a root element name to the class it is
+ * bound to. The table is read from the JAXB reference implementation's model; for other JAXB
+ * implementations it is empty and no root element is mapped.
+ * <p>
+ * Reading the model is expensive, so tables are shared per context through
+ * {@link JaxbContextCache#rootElements(JAXBContext)}. A table does not refer to its context.
+ */
+final class RootElements {
+
+    private static final RootElements EMPTY =
+            new RootElements(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+
+    /**
+     * Parsers configured like the ones the JAXB reference implementation's unmarshallers create, so
+     * documents read through a {@link #filter} are parsed exactly as by {@code unmarshal(InputStream)}.
+     */
+    private static final ThreadLocal<XMLReader> READERS = ThreadLocal.withInitial(RootElements::createReader);
+
+    private final Map<QName, Class<?>> beans;
+    private final Map<QName, Class<?>> declarations;
+    private final Map<QName, Class<?>> globalTypes;
+
+    private RootElements(Map<QName, Class<?>> beans, Map<QName, Class<?>> declarations,
+                         Map<QName, Class<?>> globalTypes) {
+        this.beans = beans;
+        this.declarations = declarations;
+        this.globalTypes = globalTypes;
+    }
+
+    static RootElements of(JAXBContext context) {
+        if (!(context instanceof JAXBContextImpl)) {
+            return EMPTY;
+        }
+
+        RuntimeTypeInfoSet model = ((JAXBContextImpl) context).getRuntimeTypeInfoSet();
+        Map<QName, Class<?>> beans = new HashMap<>();
+        Map<QName, Class<?>> globalTypes = new HashMap<>();
+        for (RuntimeClassInfo bean : model.beans().values()) {
+            if (bean.isElement()) {
+                beans.put(bean.getElementName(), bean.getClazz());
+            }
+            if (bean.getTypeName() != null) {
+                globalTypes.put(bean.getTypeName(), bean.getClazz());
+            }
+        }
+        for (RuntimeEnumLeafInfo type : model.enums().values()) {
+            if (type.getTypeName() != null) {
+                globalTypes.put(type.getTypeName(), type.getClazz());
+            }
+        }
+        Map<QName, Class<?>> declarations = new HashMap<>();
+        for (RuntimeElementInfo element : model.getAllElements()) {
+            if (element.getScope() == null) {
+                declarations.put(element.getElementName(), erasure(element.getContentType().getType()));
+            }
+        }
+        return new RootElements(beans, declarations, globalTypes);
+    }
+
+    /**
+     * Returns every global element name with the class of its value.
+     */
+    Map<QName, Class<?>> types() {
+        Map<QName, Class<?>> types = new HashMap<>(declarations);
+        types.putAll(beans);
+        return types;
+    }
+
+    boolean isEmpty() {
+        return beans.isEmpty() && declarations.isEmpty();
+    }
+
+    /**
+     * Resolves the element the reader is positioned on, without moving the reader.
+     */
+    RootInfo resolve(XMLStreamReader reader) {
+        return resolve(reader.getName(), reader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type"),
+                reader::getNamespaceURI);
+    }
+
+    /**
+     * Returns a SAX filter that passes the first start tag it sees to {@code listener}, resolved,
+     * before passing it on. Exceptions thrown by the listener end the parse. The filter reads from a
+     * per-thread parser when used as {@link XMLReader}, and can also be put between a parser and
+     * another content handler.
+     */
+    XMLFilterImpl filter(Consumer<RootInfo> listener) {
+        RootFilter filter = new RootFilter(listener);
+        filter.setParent(READERS.get());
+        return filter;
+    }
+
+    private RootInfo resolve(QName name, String xsiType, UnaryOperator<String> namespaces) {
+        Class<?> type = beans.get(name);
+        boolean jaxbElement = false;
+        if (type == null) {
+            type = declarations.get(name);
+            jaxbElement = type != null;
+        }
+
+        if (type != null && xsiType != null) {
+            Class<?> boundType = xsiType(xsiType, namespaces);
+            if (boundType != null) {
+                type = boundType;
+            }
+        }
+        return new RootInfo(name, type, jaxbElement);
+    }
+
+    /**
+     * Returns the class named by the element's {@code xsi:type} attribute, or null if there is none
+     * or it does not name a type of the model.
+     */
+    private Class<?> xsiType(String value, UnaryOperator<String> namespaces) {
+        value = value.trim();
+        int colon = value.indexOf(':');
+        String prefix = colon > 0 ? value.substring(0, colon) : XMLConstants.DEFAULT_NS_PREFIX;
+        String namespace = namespaces.apply(prefix);
+        return globalTypes.get(new QName(namespace != null ? namespace : "", value.substring(colon + 1)));
+    }
+
+    private static XMLReader createReader() {
+        try {
+            return XmlFactory.createParserFactory(false).newSAXParser().getXMLReader();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new XmlMappingException("Failed to create XML parser: " + e.getMessage(), e);
+        }
+    }
+
+    private static Class<?> erasure(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return erasure(((ParameterizedType) type).getRawType());
+        }
+        return Object.class;
+    }
+
+    /**
+     * Filter resolving the root element from its start tag. Prefixes can only be declared on or before
+     * the root element, so those seen until then are enough to resolve its {@code xsi:type}.
+     */
+    private final class RootFilter extends XMLFilterImpl {
+
+        private final Consumer<RootInfo> listener;
+        private Map<String, String> prefixes;
+        private boolean seen;
+
+        RootFilter(Consumer<RootInfo> listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException {
+            if (!seen) {
+                if (prefixes == null) {
+                    prefixes = new HashMap<>();
+                }
+                prefixes.put(prefix, uri);
+            }
+            super.startPrefixMapping(prefix, uri);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            if (!seen) {
+                seen = true;
+                listener.accept(resolve(new QName(uri, localName),
+                        atts.getValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type"),
+                        prefix -> prefixes != null ? prefixes.get(prefix) : null));
+            }
+            super.startElement(uri, localName, qName, atts);
+        }
+    }
+}
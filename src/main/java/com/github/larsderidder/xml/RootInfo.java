@@ -0,0 +1,57 @@
+package com.github.larsderidder.xml;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.namespace.QName;
+
+/**
+ * The root element of a document and the class it is bound to, as found by
+ * {@link XmlMapper#peekRoot(String)} from the first start tag alone.
+ */
+public class RootInfo {
+
+    private final QName name;
+    private final Class<?> type;
+    private final boolean jaxbElement;
+
+    RootInfo(QName name, Class<?> type, boolean jaxbElement) {
+        this.name = name;
+        this.type = type;
+        this.jaxbElement = jaxbElement;
+    }
+
+    /**
+     * @return the qualified name of the root element
+     */
+    public QName getName() {
+        return name;
+    }
+
+    /**
+     * @return the class the root element is bound to, taking {@code xsi:type} into account, or null
+     *         if the element is not a root element of the mapper's model
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return true if the root element is declared in an {@code ObjectFactory}, in which case
+     *         unmarshaling returns a {@link JAXBElement} holding a {@link #getType()} value
+     */
+    public boolean isJaxbElement() {
+        return jaxbElement;
+    }
+
+    /**
+     * @return the class of the object unmarshaling the document returns, or null if not known
+     */
+    Class<?> getResultType() {
+        return jaxbElement ? JAXBElement.class : type;
+    }
+
+    @Override
+    public String toString() {
+        return name + (type != null ? " -> " + (jaxbElement ? "JAXBElement<" + type.getName() + ">" : type.getName())
+                : " (unmapped)");
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.larsderidder.xml;
+
+import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of compiled XSD schemas keyed by resolved URL.
+ * <p>
+ * Compiled {@link Schema} objects are immutable and thread-safe, so mappers validating against
+ * the same schema share one instance. An entry is recompiled when the last-modified stamp of
+ * its URL, or of any schema it includes or imports by location, changes.
+ */
+public final class SchemaCache {
+
+    private static final ConcurrentMap<String, Entry> SCHEMAS = new ConcurrentHashMap<>();
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private SchemaCache() {
+    }
+
+    /**
+     * Returns the compiled schema for the given URL, compiling it if it is not cached or has changed.
+     *
+     * @param schemaUrl the location of the XSD schema
+     * @return the compiled schema
+     * @throws XmlMappingException if the schema cannot be compiled
+     */
+    public static Schema getSchema(final URL schemaUrl) {
+        if (schemaUrl == null) {
+            throw new IllegalArgumentException("schemaUrl must not be null");
+        }
+
+        final String key = schemaUrl.toExternalForm();
+
+        Entry entry = SCHEMAS.get(key);
+        if (entry != null && entry.isCurrent()) {
+            HITS.incrementAndGet();
+            return entry.schema;
+        }
+
+        return SCHEMAS.compute(key, (url, existing) -> {
+            if (existing != null && existing.isCurrent()) {
+                HITS.incrementAndGet();
+                return existing;
+            }
+            MISSES.incrementAndGet();
+            return compile(schemaUrl);
+        }).schema;
+    }
+
+    /**
+     * Removes the cached schema for the given URL, if any.
+     *
+     * @param schemaUrl the location of the XSD schema
+     */
+    public static void invalidate(URL schemaUrl) {
+        SCHEMAS.remove(schemaUrl.toExternalForm());
+    }
+
+    /**
+     * Removes all cached schemas. Mappers that already hold a schema keep using it.
+     */
+    public static void invalidateAll() {
+        SCHEMAS.clear();
+    }
+
+    /**
+     * Returns the number of lookups served from the cache.
+     *
+     * @return the hit count since startup
+     */
+    public static long hitCount() {
+        return HITS.get();
+    }
+
+    /**
+     * Returns the number of lookups that required compiling a schema.
+     *
+     * @return the miss count since startup
+     */
+    public static long missCount() {
+        return MISSES.get();
+    }
+
+    /**
+     * Returns the number of schemas currently cached.
+     *
+     * @return the cache size
+     */
+    public static int size() {
+        return SCHEMAS.size();
+    }
+
+    /**
+     * Compiles a schema, recording the stamps of the schema and of every file it includes or imports.
+     */
+    private static Entry compile(URL schemaUrl) {
+        Map<String, Long> stamps = new LinkedHashMap<>();
+        stamps.put(schemaUrl.toExternalForm(), lastModified(schemaUrl));
+        try {
+            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            // Only observes the locations; returning null leaves resolving them to the factory
+            schemaFactory.setResourceResolver((type, namespace, publicId, systemId, baseUri) -> {
+                URL dependency = resolve(baseUri, systemId);
+                if (dependency != null) {
+                    stamps.putIfAbsent(dependency.toExternalForm(), lastModified(dependency));
+                }
+                return null;
+            });
+            return new Entry(schemaFactory.newSchema(schemaUrl), stamps);
+        } catch (Exception e) {
+            throw new XmlMappingException("Failed to load schema: " + schemaUrl, e);
+        }
+    }
+
+    private static URL resolve(String baseUri, String systemId) {
+        if (systemId == null) {
+            return null;
+        }
+        try {
+            return baseUri != null ? new URL(new URL(baseUri), systemId) : new URL(systemId);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static long lastModified(URL schemaUrl) {
+        try {
+            if ("file".equals(schemaUrl.getProtocol())) {
+                return new File(schemaUrl.toURI()).lastModified();
+            }
+            URLConnection connection = schemaUrl.openConnection();
+            return connection.getLastModified();
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            return 0L;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Schema schema;
+        private final Map<String, Long> stamps;
+
+        private Entry(Schema schema, Map<String, Long> stamps) {
+            this.schema = schema;
+            this.stamps = stamps;
+        }
+
+        /**
+         * Returns whether none of the schema files has changed since the schema was compiled.
+         */
+        boolean isCurrent() {
+            for (Map.Entry<String, Long> stamp : stamps.entrySet()) {
+                try {
+                    if (lastModified(new URL(stamp.getKey())) != stamp.getValue()) {
+                        return false;
+                    }
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.github.larsderidder.xml;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.bind.ValidationEventLocator;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates documents against a schema by streaming SAX events through a pooled
+ * {@link ValidatorHandler}, optionally unmarshaling them in the same pass.
+ * <p>
+ * Problems are collected rather than aborting on the first one, up to an error budget after which
+ * parsing stops early.
+ */
+final class SchemaValidator {
+
+    /**
+     * Error budget meaning all problems in the document are collected.
+     */
+    static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final ThreadLocal<XMLReader> READERS = ThreadLocal.withInitial(SchemaValidator::createReader);
+
+    private final InstancePool<ValidatorHandler> handlers;
+
+    SchemaValidator(Schema schema, int poolSize) {
+        this.handlers = new InstancePool<>(schema::newValidatorHandler, SchemaValidator::reset, poolSize);
+    }
+
+    /**
+     * Validates a document without unmarshaling it.
+     */
+    ValidationResult validate(InputSource input, int maxErrors) {
+        return validate(input, maxErrors, null, null);
+    }
+
+    /**
+     * Validates a document and passes it on to the given unmarshaller's handler. Binding problems
+     * reported by the unmarshaller count against the same error budget as schema violations.
+     *
+     * @param unmarshaller the unmarshaller owning the handler, or null to only validate
+     * @param target the handler receiving the validated events, the unmarshaller's handler or a filter in
+     *        front of it, or null to only validate
+     */
+    ValidationResult validate(InputSource input, int maxErrors, Unmarshaller unmarshaller, ContentHandler target) {
+        ValidatorHandler handler = null;
+        XMLReader reader = READERS.get();
+        Collector collector = new Collector(maxErrors);
+        ValidationEventHandler previousHandler = null;
+
+        try {
+            handler = handlers.borrow();
+            handler.setErrorHandler(collector);
+            handler.setContentHandler(target);
+            if (unmarshaller != null) {
+                previousHandler = unmarshaller.getEventHandler();
+                unmarshaller.setEventHandler(collector);
+            }
+            collector.setContentHandler(handler);
+            reader.setContentHandler(collector);
+            reader.setErrorHandler(collector);
+
+            reader.parse(input);
+
+        } catch (SAXParseException e) {
+            // Parsing cannot continue; the problem is normally already recorded by the collector
+            if (!collector.stopped) {
+                collector.recordFatal(e);
+            }
+        } catch (SAXException e) {
+            if (!collector.stopped) {
+                throw new XmlMappingException("Failed to validate XML: " + e.getMessage(), e);
+            }
+        } catch (IOException | JAXBException e) {
+            throw new XmlMappingException("Failed to validate XML: " + e.getMessage(), e);
+        } finally {
+            reader.setContentHandler(null);
+            reader.setErrorHandler(null);
+            handlers.release(handler);
+            if (unmarshaller != null) {
+                restoreEventHandler(unmarshaller, previousHandler);
+            }
+        }
+
+        return new ValidationResult(collector.errors);
+    }
+
+    /**
+     * Puts back the handler the unmarshaller had before validation. Setting null instead would install
+     * a {@link javax.xml.bind.helpers.DefaultValidationEventHandler}, which prints every later failure.
+     */
+    private static void restoreEventHandler(Unmarshaller unmarshaller, ValidationEventHandler handler) {
+        try {
+            unmarshaller.setEventHandler(handler);
+        } catch (JAXBException e) {
+            // not thrown for handlers previously returned by the unmarshaller itself
+        }
+    }
+
+    /**
+     * Creates idle validator handlers until the pool holds {@code count}.
+     */
+    void prefill(int count) {
+        try {
+            handlers.prefill(count);
+        } catch (JAXBException e) {
+            throw new XmlMappingException("Failed to create validator: " + e.getMessage(), e);
+        }
+    }
+
+    private static void reset(ValidatorHandler handler) {
+        handler.setErrorHandler(null);
+        handler.setContentHandler(null);
+    }
+
+    private static XMLReader createReader() {
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            return factory.newSAXParser().getXMLReader();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new XmlMappingException("Failed to create XML parser: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Thrown to stop parsing once the error budget is used up.
+     */
+    private static final class BudgetExhausted extends SAXException {
+
+        BudgetExhausted() {
+            super("Validation error budget exhausted");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * Forwards parse events to the validator while tracking the current element path, and records
+     * every problem reported by the parser, the validator or the unmarshaller.
+     */
+    private static final class Collector extends XMLFilterImpl implements ValidationEventHandler {
+
+        private final int maxErrors;
+        private final List<String> elements = new ArrayList<>();
+        private final List<ValidationError> errors = new ArrayList<>();
+        private SAXParseException fatal;
+        private boolean stopped;
+
+        Collector(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            elements.add(localName.isEmpty() ? qName : localName);
+            super.startElement(uri, localName, qName, atts);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            super.endElement(uri, localName, qName);
+            elements.remove(elements.size() - 1);
+        }
+
+        @Override
+        public void warning(SAXParseException e) {
+            record(ValidationError.Severity.WARNING, e);
+        }
+
+        @Override
+        public void error(SAXParseException e) throws SAXException {
+            record(ValidationError.Severity.ERROR, e);
+            if (errors.size() >= maxErrors) {
+                stopped = true;
+                throw new BudgetExhausted();
+            }
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            recordFatal(e);
+            throw e;
+        }
+
+        @Override
+        public boolean handleEvent(ValidationEvent event) {
+            if (event.getLinkedException() == fatal && fatal != null) {
+                // Already reported by the parser before it reached the unmarshaller
+                stopped = true;
+                return false;
+            }
+
+            ValidationEventLocator locator = event.getLocator();
+            int line = locator != null ? locator.getLineNumber() : -1;
+            int column = locator != null ? locator.getColumnNumber() : -1;
+            ValidationError.Severity severity = severity(event.getSeverity());
+            errors.add(new ValidationError(severity, event.getMessage(), line, column, path()));
+
+            if (severity == ValidationError.Severity.FATAL_ERROR || errors.size() >= maxErrors) {
+                stopped = true;
+                return false;
+            }
+            return true;
+        }
+
+        void recordFatal(SAXParseException e) {
+            if (e != fatal) {
+                fatal = e;
+                record(ValidationError.Severity.FATAL_ERROR, e);
+            }
+        }
+
+        private void record(ValidationError.Severity severity, SAXParseException e) {
+            errors.add(new ValidationError(severity, e.getMessage(), e.getLineNumber(), e.getColumnNumber(), path()));
+        }
+
+        private String path() {
+            if (elements.isEmpty()) {
+                return null;
+            }
+            StringBuilder path = new StringBuilder();
+            for (String element : elements) {
+                path.append('/').append(element);
+            }
+            return path.toString();
+        }
+
+        private static ValidationError.Severity severity(int severity) {
+            switch (severity) {
+                case ValidationEvent.WARNING:
+                    return ValidationError.Severity.WARNING;
+                case ValidationEvent.ERROR:
+                    return ValidationError.Severity.ERROR;
+                default:
+                    return ValidationError.Severity.FATAL_ERROR;
+            }
+        }
+    }
+}
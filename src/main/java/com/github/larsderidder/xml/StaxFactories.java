@@ -0,0 +1,31 @@
+package com.github.larsderidder.xml;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+
+/**
+ * Per-thread StAX factories. The JDK factory implementations are not guaranteed to be
+ * thread-safe, and creating a factory is expensive, so each thread configures its own once.
+ */
+final class StaxFactories {
+
+    private static final ThreadLocal<XMLInputFactory> INPUT = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    });
+
+    private static final ThreadLocal<XMLOutputFactory> OUTPUT = ThreadLocal.withInitial(XMLOutputFactory::newInstance);
+
+    private StaxFactories() {
+    }
+
+    static XMLInputFactory input() {
+        return INPUT.get();
+    }
+
+    static XMLOutputFactory output() {
+        return OUTPUT.get();
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.larsderidder.xml;
+
+/**
+ * A single problem found while validating a document against its schema.
+ */
+public class ValidationError {
+
+    /**
+     * Severity of a validation problem.
+     */
+    public enum Severity {
+
+        /**
+         * A warning reported by the schema validator; does not make the document invalid.
+         */
+        WARNING,
+
+        /**
+         * A schema violation after which validation continued.
+         */
+        ERROR,
+
+        /**
+         * A problem after which the document could not be read further, such as malformed XML.
+         */
+        FATAL_ERROR
+    }
+
+    private final Severity severity;
+    private final String message;
+    private final int lineNumber;
+    private final int columnNumber;
+    private final String path;
+
+    /**
+     * Creates a validation error.
+     *
+     * @param severity the severity of the problem
+     * @param message the description reported by the validator
+     * @param lineNumber the line of the problem, or -1 if unknown
+     * @param columnNumber the column of the problem, or -1 if unknown
+     * @param path the slash-separated path of element names to the problem, or null if unknown
+     */
+    public ValidationError(Severity severity, String message, int lineNumber, int columnNumber, String path) {
+        this.severity = severity;
+        this.message = message;
+        this.lineNumber = lineNumber;
+        this.columnNumber = columnNumber;
+        this.path = path;
+    }
+
+    /**
+     * @return the severity of the problem
+     */
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    /**
+     * @return the description reported by the validator
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the line of the problem, or -1 if unknown
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return the column of the problem, or -1 if unknown
+     */
+    public int getColumnNumber() {
+        return columnNumber;
+    }
+
+    /**
+     * @return the slash-separated path of element names to the problem, or null if unknown
+     */
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return severity + " at " + lineNumber + ":" + columnNumber + (path != null ? " " + path : "") + ": " + message;
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.larsderidder.xml;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of validating a document against a schema.
+ */
+public class ValidationResult {
+
+    private final List<ValidationError> errors;
+
+    /**
+     * Creates a validation result.
+     *
+     * @param errors all problems found, in document order; warnings included
+     */
+    public ValidationResult(List<ValidationError> errors) {
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * @return true if no errors or fatal errors were found; warnings do not make a document invalid
+     */
+    public boolean isValid() {
+        for (ValidationError error : errors) {
+            if (error.getSeverity() != ValidationError.Severity.WARNING) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return all problems found, in document order
+     */
+    public List<ValidationError> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "valid" : "invalid " + errors;
+    }
+}
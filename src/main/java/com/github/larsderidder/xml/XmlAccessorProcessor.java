@@ -0,0 +1,253 @@
+package com.github.larsderidder.xml;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Annotation processor generating a {@code JaxbAccessorFactory} for each package annotated with
+ * {@link GenerateAccessors}. The factory returns a dedicated accessor class per field and
+ * getter/setter pair, so the JAXB runtime reads and writes values with plain field access and
+ * method calls, which the JIT can inline, instead of reflection.
+ * <p>
+ * Accessors are generated for non-private, non-final instance fields and for non-private getter and
+ * setter pairs of all classes in the package. Anything else, such as private fields, is passed on to
+ * the JAXB runtime's reflective accessors. The processor does nothing for packages without the
+ * annotation.
+ * <p>
+ * The processor is registered as a service, but since JDK 23 javac no longer runs processors found
+ * on the class path unless asked to. Add this library to the processor path instead, for Maven:
+ * <pre>{@code
+ * <plugin>
+ *     <artifactId>maven-compiler-plugin</artifactId>
+ *     <configuration>
+ *         <annotationProcessorPaths>
+ *             <path>
+ *                 <groupId>com.github.larsderidder</groupId>
+ *                 <artifactId>jaxb-xml-mapper</artifactId>
+ *                 <version>1.0.0</version>
+ *             </path>
+ *         </annotationProcessorPaths>
+ *     </configuration>
+ * </plugin>
+ * }</pre>
+ * or pass {@code -processor com.github.larsderidder.xml.XmlAccessorProcessor} (or {@code -proc:full})
+ * to javac. Note that {@code annotationProcessorPaths} replaces discovery on the class path, so any
+ * other processors in use have to be listed there as well.
+ */
+public class XmlAccessorProcessor extends AbstractProcessor {
+
+    static final String FACTORY_NAME = "JaxbAccessorFactory";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(GenerateAccessors.class.getName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateAccessors.class)) {
+            if (element.getKind() == ElementKind.PACKAGE) {
+                generate((PackageElement) element);
+            }
+        }
+        return true;
+    }
+
+    private void generate(PackageElement pkg) {
+        List<TypeElement> beans = new ArrayList<>();
+        for (TypeElement type : ElementFilter.typesIn(pkg.getEnclosedElements())) {
+            collectBeans(type, beans);
+        }
+
+        String packageName = pkg.getQualifiedName().toString();
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName + "." + FACTORY_NAME, pkg).openWriter())) {
+            writeFactory(out, packageName, beans);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to generate " + FACTORY_NAME + ": " + e.getMessage(), pkg);
+        }
+    }
+
+    private static void collectBeans(TypeElement type, List<TypeElement> beans) {
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            return;
+        }
+        if (type.getKind() == ElementKind.CLASS && !type.getSimpleName().contentEquals(FACTORY_NAME)) {
+            beans.add(type);
+        }
+        for (TypeElement member : ElementFilter.typesIn(type.getEnclosedElements())) {
+            if (member.getModifiers().contains(Modifier.STATIC)) {
+                collectBeans(member, beans);
+            }
+        }
+    }
+
+    private void writeFactory(PrintWriter out, String packageName, List<TypeElement> beans) {
+        out.println("package " + packageName + ";");
+        out.println();
+        out.println("/**");
+        out.println(" * Reflection-free JAXB accessors for " + packageName + ", generated by "
+                + XmlAccessorProcessor.class.getSimpleName() + ".");
+        out.println(" */");
+        out.println("@SuppressWarnings({\"rawtypes\", \"unchecked\"})");
+        out.println("public final class " + FACTORY_NAME + " implements com.sun.xml.bind.AccessorFactory {");
+        out.println();
+        out.println("    private static final com.sun.xml.bind.AccessorFactory FALLBACK = "
+                + "com.sun.xml.bind.AccessorFactoryImpl.getInstance();");
+        out.println();
+
+        out.println("    @Override");
+        out.println("    public com.sun.xml.bind.v2.runtime.reflect.Accessor createFieldAccessor(Class bean, "
+                + "java.lang.reflect.Field field, boolean readOnly) throws javax.xml.bind.JAXBException {");
+        out.println("        switch (bean.getName() + '#' + field.getName()) {");
+        for (TypeElement bean : beans) {
+            for (VariableElement field : ElementFilter.fieldsIn(bean.getEnclosedElements())) {
+                if (isAccessible(field) && !field.getModifiers().contains(Modifier.FINAL)) {
+                    writeFieldCase(out, bean, field);
+                }
+            }
+        }
+        out.println("            default:");
+        out.println("                return FALLBACK.createFieldAccessor(bean, field, readOnly);");
+        out.println("        }");
+        out.println("    }");
+        out.println();
+
+        out.println("    @Override");
+        out.println("    public com.sun.xml.bind.v2.runtime.reflect.Accessor createPropertyAccessor(Class bean, "
+                + "java.lang.reflect.Method getter, java.lang.reflect.Method setter) "
+                + "throws javax.xml.bind.JAXBException {");
+        out.println("        if (getter == null || setter == null) {");
+        out.println("            return FALLBACK.createPropertyAccessor(bean, getter, setter);");
+        out.println("        }");
+        out.println("        switch (bean.getName() + '#' + getter.getName() + '#' + setter.getName()) {");
+        for (TypeElement bean : beans) {
+            writePropertyCases(out, bean);
+        }
+        out.println("            default:");
+        out.println("                return FALLBACK.createPropertyAccessor(bean, getter, setter);");
+        out.println("        }");
+        out.println("    }");
+        out.println("}");
+    }
+
+    private void writeFieldCase(PrintWriter out, TypeElement bean, VariableElement field) {
+        String beanType = erasure(bean.asType());
+        String name = field.getSimpleName().toString();
+        TypeMirror type = field.asType();
+
+        out.println("            case \"" + binaryName(bean) + "#" + name + "\":");
+        out.println("                return new com.sun.xml.bind.v2.runtime.reflect.Accessor(" + erasure(type) + ".class) {");
+        out.println("                    @Override");
+        out.println("                    public Object get(Object bean) {");
+        out.println("                        return ((" + beanType + ") bean)." + name + ";");
+        out.println("                    }");
+        out.println();
+        out.println("                    @Override");
+        out.println("                    public void set(Object bean, Object value) {");
+        out.println("                        ((" + beanType + ") bean)." + name + " = " + cast(type, "value") + ";");
+        out.println("                    }");
+        out.println("                };");
+    }
+
+    private void writePropertyCases(PrintWriter out, TypeElement bean) {
+        List<ExecutableElement> methods = ElementFilter.methodsIn(bean.getEnclosedElements());
+        String beanType = erasure(bean.asType());
+
+        for (ExecutableElement getter : methods) {
+            String property = propertyName(getter);
+            if (property == null || !isAccessible(getter)) {
+                continue;
+            }
+            TypeMirror type = getter.getReturnType();
+
+            for (ExecutableElement setter : methods) {
+                if (!setter.getSimpleName().contentEquals("set" + property) || !isAccessible(setter)
+                        || setter.getParameters().size() != 1
+                        || !processingEnv.getTypeUtils().isSameType(
+                                processingEnv.getTypeUtils().erasure(setter.getParameters().get(0).asType()),
+                                processingEnv.getTypeUtils().erasure(type))) {
+                    continue;
+                }
+
+                out.println("            case \"" + binaryName(bean) + "#" + getter.getSimpleName() + "#"
+                        + setter.getSimpleName() + "\":");
+                out.println("                return new com.sun.xml.bind.v2.runtime.reflect.Accessor(" + erasure(type) + ".class) {");
+                out.println("                    @Override");
+                out.println("                    public Object get(Object bean) {");
+                out.println("                        return ((" + beanType + ") bean)." + getter.getSimpleName() + "();");
+                out.println("                    }");
+                out.println();
+                out.println("                    @Override");
+                out.println("                    public void set(Object bean, Object value) {");
+                out.println("                        ((" + beanType + ") bean)." + setter.getSimpleName() + "("
+                        + cast(type, "value") + ");");
+                out.println("                    }");
+                out.println("                };");
+            }
+        }
+    }
+
+    /**
+     * Returns the property name for a getter, such as {@code Id} for {@code getId()}, or null for other methods.
+     */
+    private static String propertyName(ExecutableElement method) {
+        if (!method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID) {
+            return null;
+        }
+        String name = method.getSimpleName().toString();
+        if (name.startsWith("get") && name.length() > 3) {
+            return name.substring(3);
+        }
+        if (name.startsWith("is") && name.length() > 2 && method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+            return name.substring(2);
+        }
+        return null;
+    }
+
+    private static boolean isAccessible(Element member) {
+        Set<Modifier> modifiers = member.getModifiers();
+        return !modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.STATIC);
+    }
+
+    private String cast(TypeMirror type, String expression) {
+        if (type.getKind().isPrimitive()) {
+            return "(" + processingEnv.getTypeUtils().boxedClass((PrimitiveType) type)
+                    .getQualifiedName() + ") " + expression;
+        }
+        return "(" + erasure(type) + ") " + expression;
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+}
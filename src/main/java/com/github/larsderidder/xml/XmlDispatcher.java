@@ -0,0 +1,219 @@
+package com.github.larsderidder.xml;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Routes documents of many types to a handler per root element. The handler is looked up in a
+ * table keyed by root element name as soon as the first start tag has been read, and the document
+ * is then bound by the same parser, so each document is read only once. Documents are bound to the
+ * class of their root element, so a handler for a superclass receives complete subclass instances.
+ * <p>
+ * A dispatcher is immutable and can be shared between threads.
+ *
+ * @see XmlMapper#dispatcher()
+ */
+public final class XmlDispatcher {
+
+    private final XmlMapper mapper;
+    private final Map<QName, Route<?>> routes;
+    private final Consumer<? super RootInfo> fallback;
+
+    private XmlDispatcher(XmlMapper mapper, Map<QName, Route<?>> routes, Consumer<? super RootInfo> fallback) {
+        this.mapper = mapper;
+        this.routes = routes;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Unmarshals an XML string and passes it to the handler for its root element.
+     *
+     * @param xml the XML string
+     * @throws XmlMappingException if the XML cannot be read or unmarshaled, or no handler matches and
+     *                             no fallback is registered
+     */
+    public void dispatch(String xml) {
+        try {
+            dispatch(StaxFactories.input().createXMLStreamReader(new StringReader(xml)));
+        } catch (XMLStreamException e) {
+            throw new XmlMappingException("Failed to read XML stream: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Unmarshals an XML document and passes it to the handler for its root element.
+     *
+     * @param bytes the XML document
+     * @throws XmlMappingException if the XML cannot be read or unmarshaled, or no handler matches and
+     *                             no fallback is registered
+     */
+    public void dispatch(byte[] bytes) {
+        dispatch(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Unmarshals an XML input stream and passes it to the handler for its root element. The input
+     * stream is not closed.
+     *
+     * @param inputStream the XML input stream
+     * @throws XmlMappingException if the XML cannot be read or unmarshaled, or no handler matches and
+     *                             no fallback is registered
+     */
+    public void dispatch(InputStream inputStream) {
+        try {
+            dispatch(StaxFactories.input().createXMLStreamReader(inputStream));
+        } catch (XMLStreamException e) {
+            throw new XmlMappingException("Failed to read XML stream: " + e.getMessage(), e);
+        }
+    }
+
+    private void dispatch(XMLStreamReader reader) throws XMLStreamException {
+        try {
+            XmlMapper.toRootElement(reader);
+            Route<?> route = routes.get(reader.getName());
+            if (route != null) {
+                route.handle(mapper, reader);
+            } else if (fallback != null) {
+                fallback.accept(mapper.rootElements().resolve(reader));
+            } else {
+                throw new XmlMappingException("No handler for root element " + reader.getName());
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * A handler and the class documents are bound to before they are passed to it.
+     */
+    private static final class Route<T> {
+
+        private final Class<? extends T> type;
+        private final Consumer<? super T> handler;
+
+        Route(Class<? extends T> type, Consumer<? super T> handler) {
+            this.type = type;
+            this.handler = handler;
+        }
+
+        /**
+         * Returns a route binding documents to the given class, if it is a subclass of this route's
+         * class, passing them to the same handler.
+         */
+        Route<T> bindTo(Class<?> boundType) {
+            if (boundType == null || boundType == type || !type.isAssignableFrom(boundType)) {
+                return this;
+            }
+            @SuppressWarnings("unchecked")
+            Class<? extends T> subtype = (Class<? extends T>) boundType;
+            return new Route<>(subtype, handler);
+        }
+
+        void handle(XmlMapper mapper, XMLStreamReader reader) {
+            handler.accept(mapper.unmarshal(reader, type));
+        }
+    }
+
+    /**
+     * Builder for dispatchers. Handlers registered for an element name take precedence over handlers
+     * registered for a class.
+     */
+    public static final class Builder {
+
+        private final XmlMapper mapper;
+        private final Map<QName, Route<?>> namedRoutes = new LinkedHashMap<>();
+        private final Map<Class<?>, Route<?>> typedRoutes = new LinkedHashMap<>();
+        private Consumer<? super RootInfo> fallback;
+
+        Builder(XmlMapper mapper) {
+            this.mapper = mapper;
+        }
+
+        /**
+         * Registers a handler for every root element bound to the given class or one of its
+         * subclasses. A root element bound to a subclass goes to the handler of the closest class.
+         *
+         * @param <T> the document type
+         * @param type the class of the documents to handle
+         * @param handler receives the unmarshaled documents
+         * @return this builder
+         */
+        public <T> Builder on(Class<T> type, Consumer<? super T> handler) {
+            if (typedRoutes.putIfAbsent(type, new Route<>(type, handler)) != null) {
+                throw new IllegalArgumentException("Duplicate handler for " + type.getName());
+            }
+            return this;
+        }
+
+        /**
+         * Registers a handler for documents with the given root element, unmarshaled to the given class,
+         * or to the element's own class if it is a root element of the model bound to a subclass.
+         *
+         * @param <T> the document type
+         * @param name the qualified name of the root element
+         * @param type the class to unmarshal the documents to
+         * @param handler receives the unmarshaled documents
+         * @return this builder
+         */
+        public <T> Builder on(QName name, Class<T> type, Consumer<? super T> handler) {
+            if (namedRoutes.putIfAbsent(name, new Route<>(type, handler)) != null) {
+                throw new IllegalArgumentException("Duplicate handler for root element " + name);
+            }
+            return this;
+        }
+
+        /**
+         * Registers a handler for documents whose root element has no handler. Without one, such
+         * documents fail with {@link XmlMappingException}.
+         *
+         * @param fallback receives the root element of unhandled documents, which are not unmarshaled
+         * @return this builder
+         */
+        public Builder otherwise(Consumer<? super RootInfo> fallback) {
+            this.fallback = fallback;
+            return this;
+        }
+
+        /**
+         * Resolves the root elements of the registered classes and builds the dispatcher.
+         *
+         * @return the dispatcher
+         * @throws IllegalArgumentException if a registered class is not bound to any root element
+         */
+        public XmlDispatcher build() {
+            Map<QName, Route<?>> routes = new HashMap<>();
+            Set<Class<?>> used = new HashSet<>();
+            Map<QName, Class<?>> elements = mapper.rootElements().types();
+            for (Map.Entry<QName, Class<?>> element : elements.entrySet()) {
+                for (Class<?> type = element.getValue(); type != null; type = type.getSuperclass()) {
+                    Route<?> route = typedRoutes.get(type);
+                    if (route != null) {
+                        routes.put(element.getKey(), route.bindTo(element.getValue()));
+                        used.add(type);
+                        break;
+                    }
+                }
+            }
+            for (Class<?> type : typedRoutes.keySet()) {
+                if (!used.contains(type)) {
+                    throw new IllegalArgumentException("No root element is bound to " + type.getName());
+                }
+            }
+
+            for (Map.Entry<QName, Route<?>> named : namedRoutes.entrySet()) {
+                routes.put(named.getKey(), named.getValue().bindTo(elements.get(named.getKey())));
+            }
+            return new XmlDispatcher(mapper, routes, fallback);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.github.larsderidder.xml;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Incremental byte-level scanner that finds complete elements at a given depth in XML arriving in
+ * arbitrary chunks, without parsing or blocking on input.
+ * <p>
+ * The scanner only tracks markup boundaries (tags, comments, CDATA sections, processing
+ * instructions and declarations) so that complete elements can be handed to a real parser.
+ * Depth 1 yields whole documents, including their prolog; depth 2 yields the children of the
+ * root element, whose start tag is kept as {@link #getHeader() header} so the children can be
+ * parsed with the namespace declarations in scope. Input must use an ASCII-compatible encoding
+ * such as UTF-8 or ISO-8859-1.
+ * <p>
+ * Not thread-safe.
+ */
+final class XmlElementScanner {
+
+    private static final int CONTENT = 0;
+    private static final int MARKUP = 1;
+    private static final int START_TAG = 2;
+    private static final int END_TAG = 3;
+    private static final int PROCESSING_INSTRUCTION = 4;
+    private static final int BANG = 5;
+    private static final int BANG_DASH = 6;
+    private static final int COMMENT = 7;
+    private static final int CDATA_OPEN = 8;
+    private static final int CDATA = 9;
+    private static final int DECLARATION = 10;
+
+    private final int targetDepth;
+
+    private byte[] buffer = new byte[8192];
+    private int end;
+    private int pos;
+
+    private int state = CONTENT;
+    private int depth;
+    private int markupStart;
+    private int elementStart = -1;
+    private int headerStart = -1;
+    private byte quote;
+    private int run;
+    private boolean selfClosing;
+
+    private byte[] header;
+    private byte[] footer;
+    private boolean rootClosed;
+    private byte[] pending;
+
+    /**
+     * @param targetDepth 1 to find whole documents, 2 to find the children of the root element
+     */
+    XmlElementScanner(int targetDepth) {
+        if (targetDepth != 1 && targetDepth != 2) {
+            throw new IllegalArgumentException("Target depth must be 1 or 2: " + targetDepth);
+        }
+        this.targetDepth = targetDepth;
+    }
+
+    /**
+     * Appends the remaining bytes of the chunk. The chunk is copied, so the caller may reuse it.
+     */
+    void feed(ByteBuffer chunk) {
+        int length = chunk.remaining();
+        ensureCapacity(length);
+        chunk.get(buffer, end, length);
+        end += length;
+    }
+
+    /**
+     * Scans the buffered input for the next complete element.
+     *
+     * @return true if a complete element is available from {@link #next()}
+     * @throws XmlMappingException if the markup is not well-formed
+     */
+    boolean hasNext() {
+        if (pending == null) {
+            scan();
+        }
+        return pending != null;
+    }
+
+    /**
+     * Returns the next complete element as a copy of its bytes, or null if more input is needed.
+     */
+    byte[] next() {
+        if (!hasNext()) {
+            return null;
+        }
+        byte[] element = pending;
+        pending = null;
+        return element;
+    }
+
+    /**
+     * Returns the bytes from the start of the document up to and including the root start tag,
+     * or null if the root start tag has not been seen yet. Only available for depth 2.
+     */
+    byte[] getHeader() {
+        return header;
+    }
+
+    /**
+     * Returns the end tag closing the root element opened in the header.
+     */
+    byte[] getFooter() {
+        return footer;
+    }
+
+    /**
+     * Returns whether all input seen so far forms complete elements, so the input may end here.
+     */
+    boolean isAtBoundary() {
+        if (state != CONTENT) {
+            return false;
+        }
+        if (targetDepth == 1) {
+            return depth == 0 && elementStart < 0;
+        }
+        return rootClosed || headerStart < 0;
+    }
+
+    private void scan() {
+        while (pos < end && pending == null) {
+            byte b = buffer[pos];
+
+            switch (state) {
+                case CONTENT:
+                    if (b == '<') {
+                        markupStart = pos;
+                        state = MARKUP;
+                        if (depth == targetDepth - 1 && elementStart < 0 && !rootClosed) {
+                            elementStart = pos;
+                        }
+                        if (targetDepth == 2 && depth == 0 && headerStart < 0) {
+                            headerStart = pos;
+                        }
+                    }
+                    break;
+
+                case MARKUP:
+                    if (b == '/') {
+                        state = END_TAG;
+                    } else if (b == '?') {
+                        state = PROCESSING_INSTRUCTION;
+                        run = 0;
+                    } else if (b == '!') {
+                        state = BANG;
+                    } else {
+                        state = START_TAG;
+                        quote = 0;
+                        selfClosing = false;
+                    }
+                    break;
+
+                case START_TAG:
+                    if (quote != 0) {
+                        if (b == quote) {
+                            quote = 0;
+                        }
+                    } else if (b == '"' || b == '\'') {
+                        quote = b;
+                        selfClosing = false;
+                    } else if (b == '>') {
+                        state = CONTENT;
+                        startTag();
+                    } else if (b == '/') {
+                        selfClosing = true;
+                    } else if (!isWhitespace(b)) {
+                        selfClosing = false;
+                    }
+                    break;
+
+                case END_TAG:
+                    if (b == '>') {
+                        state = CONTENT;
+                        endTag();
+                    }
+                    break;
+
+                case PROCESSING_INSTRUCTION:
+                    if (b == '>' && run == 1) {
+                        state = CONTENT;
+                    }
+                    run = b == '?' ? 1 : 0;
+                    break;
+
+                case BANG:
+                    if (b == '-') {
+                        state = BANG_DASH;
+                    } else if (b == '[') {
+                        state = CDATA_OPEN;
+                    } else {
+                        state = DECLARATION;
+                        quote = 0;
+                        run = 0;
+                    }
+                    break;
+
+                case BANG_DASH:
+                    state = b == '-' ? COMMENT : DECLARATION;
+                    run = 0;
+                    quote = 0;
+                    break;
+
+                case COMMENT:
+                    if (b == '>' && run >= 2) {
+                        state = CONTENT;
+                    }
+                    run = b == '-' ? run + 1 : 0;
+                    break;
+
+                case CDATA_OPEN:
+                    if (b == '[') {
+                        state = CDATA;
+                        run = 0;
+                    }
+                    break;
+
+                case CDATA:
+                    if (b == '>' && run >= 2) {
+                        state = CONTENT;
+                    }
+                    run = b == ']' ? run + 1 : 0;
+                    break;
+
+                case DECLARATION:
+                    if (quote != 0) {
+                        if (b == quote) {
+                            quote = 0;
+                        }
+                    } else if (b == '"' || b == '\'') {
+                        quote = b;
+                    } else if (b == '[') {
+                        run++;
+                    } else if (b == ']') {
+                        run--;
+                    } else if (b == '>' && run <= 0) {
+                        state = CONTENT;
+                    }
+                    break;
+
+                default:
+                    throw new IllegalStateException("Unknown scanner state: " + state);
+            }
+
+            pos++;
+        }
+    }
+
+    private void startTag() {
+        int tagEnd = pos + 1;
+        if (depth == 0 && targetDepth == 2 && rootClosed) {
+            throw new XmlMappingException("Unexpected element after the root element");
+        }
+
+        if (selfClosing) {
+            if (depth + 1 == targetDepth) {
+                emit(tagEnd);
+            } else if (depth == 0 && targetDepth == 2) {
+                header = Arrays.copyOfRange(buffer, headerStart, tagEnd);
+                footer = new byte[0];
+                rootClosed = true;
+            }
+            return;
+        }
+
+        depth++;
+        if (depth == 1 && targetDepth == 2 && header == null) {
+            header = Arrays.copyOfRange(buffer, headerStart, tagEnd);
+            footer = closingTag();
+            elementStart = -1;
+        }
+    }
+
+    private void endTag() {
+        if (depth == 0) {
+            throw new XmlMappingException("Unexpected end tag at depth 0");
+        }
+
+        depth--;
+        if (depth == targetDepth - 1) {
+            emit(pos + 1);
+        } else if (depth < targetDepth - 1) {
+            elementStart = -1;
+        }
+        if (depth == 0 && targetDepth == 2) {
+            rootClosed = true;
+        }
+    }
+
+    private void emit(int elementEnd) {
+        if (elementStart < 0) {
+            throw new XmlMappingException("Unexpected element at depth " + targetDepth);
+        }
+        pending = Arrays.copyOfRange(buffer, elementStart, elementEnd);
+        elementStart = -1;
+    }
+
+    private byte[] closingTag() {
+        int nameStart = markupStart + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < pos && !isWhitespace(buffer[nameEnd]) && buffer[nameEnd] != '/' && buffer[nameEnd] != '>') {
+            nameEnd++;
+        }
+
+        byte[] tag = new byte[nameEnd - nameStart + 3];
+        tag[0] = '<';
+        tag[1] = '/';
+        System.arraycopy(buffer, nameStart, tag, 2, nameEnd - nameStart);
+        tag[tag.length - 1] = '>';
+        return tag;
+    }
+
+    /**
+     * Makes room for more input, first by discarding bytes no longer needed, then by growing.
+     */
+    private void ensureCapacity(int length) {
+        if (end + length <= buffer.length) {
+            return;
+        }
+
+        int retain = pos;
+        if (state != CONTENT) {
+            retain = Math.min(retain, markupStart);
+        }
+        if (elementStart >= 0) {
+            retain = Math.min(retain, elementStart);
+        }
+        if (header == null && headerStart >= 0) {
+            retain = Math.min(retain, headerStart);
+        }
+
+        if (retain > 0) {
+            System.arraycopy(buffer, retain, buffer, 0, end - retain);
+            end -= retain;
+            pos -= retain;
+            markupStart -= retain;
+            if (elementStart >= 0) {
+                elementStart -= retain;
+            }
+            if (header == null && headerStart >= 0) {
+                headerStart -= retain;
+            }
+        }
+
+        if (end + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, end + length));
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.larsderidder.xml;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decodes XML documents that arrive in arbitrary chunks, such as buffers read from a non-blocking
+ * channel. Chunks are buffered only until the root element closes; the completed document is then
+ * unmarshaled right away, so no thread is held waiting for the rest of the input. A stream may
+ * carry several documents back to back.
+ * <p>
+ * Input must use an ASCII-compatible encoding such as UTF-8. A decoder keeps the state of one
+ * connection and is not thread-safe; create one per connection with {@link XmlMapper#newDecoder(Class)}.
+ *
+ * @param <T> the document type
+ */
+public class XmlIncrementalDecoder<T> {
+
+    private final XmlMapper mapper;
+    private final Class<T> clazz;
+    private final boolean validate;
+    private final XmlElementScanner scanner = new XmlElementScanner(1);
+
+    XmlIncrementalDecoder(XmlMapper mapper, Class<T> clazz, boolean validate) {
+        this.mapper = mapper;
+        this.clazz = clazz;
+        this.validate = validate;
+    }
+
+    /**
+     * Adds a chunk of input and unmarshals every document it completes. The chunk's remaining
+     * bytes are consumed and copied, so the caller may reuse it.
+     *
+     * @param chunk the next bytes of the input
+     * @return the documents completed by this chunk, in order; empty if more input is needed
+     * @throws XmlMappingException if a completed document cannot be unmarshaled or the markup is
+     *         not well-formed; documents completed earlier in the same chunk are then lost
+     */
+    public List<T> decode(ByteBuffer chunk) {
+        scanner.feed(chunk);
+
+        byte[] document = scanner.next();
+        if (document == null) {
+            return Collections.emptyList();
+        }
+
+        List<T> results = new ArrayList<>(1);
+        do {
+            results.add(mapper.fromXml(new ByteArrayInputStream(document), clazz, validate));
+            document = scanner.next();
+        } while (document != null);
+        return results;
+    }
+
+    /**
+     * Returns whether the input so far ends between documents.
+     *
+     * @return true if no partial document is buffered
+     */
+    public boolean isAtBoundary() {
+        return !scanner.hasNext() && scanner.isAtBoundary();
+    }
+
+    /**
+     * Signals the end of the input.
+     *
+     * @throws XmlMappingException if the input ended inside a document
+     */
+    public void finish() {
+        if (!isAtBoundary()) {
+            throw new XmlMappingException("Incomplete XML document");
+        }
+    }
+}
@@ -1,21 +1,50 @@
 package com.github.larsderidder.xml;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.XMLFilterImpl;
 
-import javax.xml.XMLConstants;
 import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.UnmarshallerHandler;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.sax.SAXSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
+import java.io.Writer;
 import java.net.URL;
-
-import static java.nio.charset.StandardCharsets.UTF_8;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Utility for XML marshaling and unmarshaling using JAXB with optional XSD validation.
@@ -23,13 +52,38 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 public class XmlMapper {
 
-    private static final Logger LOG = LoggerFactory.getLogger(XmlMapper.class);
+    /**
+     * Default number of idle unmarshallers, and marshallers per output mode, kept for reuse across threads.
+     */
+    public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private static final int WRITER_BUFFER_SIZE = 8192;
+    private static final int DEFAULT_BATCH_WINDOW_SIZE = Runtime.getRuntime().availableProcessors() * 16;
+    private static final int DEFAULT_ASYNC_QUEUE_CAPACITY = 1024;
 
-    private final JAXBContext context;
-    private final Schema schema;
+    private final String packageName;
+    private final JAXBContext providedContext;
+    private final String schemaLocation;
+    private final int poolSize;
+    private final boolean generatedAccessors;
+    private final Object modelLock = new Object();
+    private volatile Model model;
+    private final InstancePool<Unmarshaller> unmarshallers;
+    private final MarshallerPool marshallers;
+    private final OutputBuffers outputBuffers = new OutputBuffers();
+    private final FailureReporter failureReporter;
+    private final boolean lightweightExceptions;
+    private final int maxValidationErrors;
+    private final int asyncThreads;
+    private final int asyncQueueCapacity;
+    private final int batchWindowSize;
+    private volatile ThreadPoolExecutor asyncExecutor;
+    private final XmlMetricsListener metrics;
+    private final boolean metricsEnabled;
 
     /**
      * Creates an XmlMapper for the given package without schema validation.
+     * The JAXBContext is shared with other mappers for the same package, see {@link JaxbContextCache}.
      *
      * @param packageName the package containing JAXB-annotated classes
      * @throws XmlMappingException if JAXBContext creation fails
@@ -42,16 +96,12 @@ public class XmlMapper {
      * Creates an XmlMapper for the given package with optional XSD schema validation.
      *
      * @param packageName the package containing JAXB-annotated classes
-     * @param schemaLocation resource path to XSD schema file, or null to disable validation
+     * @param schemaLocation resource path to XSD schema file, or null to disable validation;
+     *                       compiled schemas are shared through {@link SchemaCache}
      * @throws XmlMappingException if JAXBContext or Schema creation fails
      */
     public XmlMapper(String packageName, String schemaLocation) {
-        try {
-            this.context = JAXBContext.newInstance(packageName);
-            this.schema = schemaLocation != null ? loadSchema(schemaLocation) : null;
-        } catch (JAXBException e) {
-            throw new XmlMappingException("Failed to create JAXB context for package: " + packageName, e);
-        }
+        this(builder(packageName).schema(schemaLocation));
     }
 
     /**
@@ -70,8 +120,126 @@ public class XmlMapper {
      * @param schemaLocation resource path to XSD schema file, or null to disable validation
      */
     public XmlMapper(JAXBContext context, String schemaLocation) {
-        this.context = context;
-        this.schema = schemaLocation != null ? loadSchema(schemaLocation) : null;
+        this(builder(context).schema(schemaLocation));
+    }
+
+    private XmlMapper(Builder builder) {
+        this.packageName = builder.packageName;
+        this.providedContext = builder.context;
+        this.schemaLocation = builder.schemaLocation;
+        this.poolSize = builder.poolSize;
+        this.generatedAccessors = builder.generatedAccessors;
+        this.unmarshallers = new InstancePool<>(() -> model().context.createUnmarshaller(),
+                XmlMapper::resetUnmarshaller, builder.poolSize);
+        this.marshallers = new MarshallerPool(() -> model().context, builder.poolSize);
+        this.failureReporter = builder.failureReporter;
+        this.lightweightExceptions = builder.lightweightExceptions;
+        this.maxValidationErrors = builder.maxValidationErrors;
+        this.asyncThreads = builder.asyncThreads;
+        this.asyncQueueCapacity = builder.asyncQueueCapacity;
+        this.batchWindowSize = builder.batchWindowSize;
+        this.metrics = builder.metrics;
+        this.metricsEnabled = metrics != NoopMetricsListener.INSTANCE;
+        if (metricsEnabled) {
+            metrics.bindPools(new PoolStats(builder.poolSize));
+        }
+        if (!builder.lazyInit) {
+            model();
+        }
+    }
+
+    /**
+     * Starts building an XmlMapper for the given package.
+     *
+     * @param packageName the package containing JAXB-annotated classes
+     * @return a new builder
+     */
+    public static Builder builder(String packageName) {
+        if (packageName == null) {
+            throw new IllegalArgumentException("packageName must not be null");
+        }
+        return new Builder(packageName, null);
+    }
+
+    /**
+     * Starts building an XmlMapper using an existing JAXBContext.
+     *
+     * @param context the JAXBContext to use
+     * @return a new builder
+     */
+    public static Builder builder(JAXBContext context) {
+        if (context == null) {
+            throw new IllegalArgumentException("context must not be null");
+        }
+        return new Builder(null, context);
+    }
+
+    /**
+     * Creates the JAXBContext and schema if they are not created yet, and fills the pools with an
+     * unmarshaller and a marshaller for the common output modes, so that the first real calls do
+     * not pay for initialization.
+     *
+     * @throws XmlMappingException if the JAXBContext or schema cannot be created
+     */
+    public void warmUp() {
+        Model model = model();
+        try {
+            unmarshallers.prefill(1);
+            marshallers.prefill(MarshallerPool.COMPACT, 1);
+            marshallers.prefill(MarshallerPool.FORMATTED, 1);
+            marshallers.prefill(MarshallerPool.FRAGMENT, 1);
+        } catch (JAXBException e) {
+            throw new XmlMappingException("Failed to warm up XmlMapper: " + e.getMessage(), e);
+        }
+        if (model.validator != null) {
+            model.validator.prefill(1);
+        }
+        rootElements();
+    }
+
+    /**
+     * Warms up like {@link #warmUp()}, then marshals the sample and unmarshals the result the given
+     * number of times, so the JIT compiles the mapping code for the sample's type before real
+     * traffic arrives. The sample is not modified.
+     *
+     * @param sample a representative object of a mapped type
+     * @param iterations the number of round trips, a few thousand to reach compiled code
+     * @throws XmlMappingException if the sample cannot be mapped
+     */
+    public void warmUp(Object sample, int iterations) {
+        warmUp();
+        Class<?> type = sample instanceof JAXBElement ? Object.class : sample.getClass();
+        for (int i = 0; i < iterations; i++) {
+            byte[] bytes = toXmlBytes(sample);
+            fromXml(bytes, 0, bytes.length, type);
+        }
+    }
+
+    /**
+     * Runs {@link #warmUp()} on the mapper's own executor, so that startup can continue while the
+     * JAXBContext is being created.
+     *
+     * @return a future completed when the mapper is warmed up, or with an XmlMappingException
+     */
+    public CompletableFuture<Void> warmUpAsync() {
+        return supplyAsync(() -> {
+            warmUp();
+            return null;
+        }, asyncExecutor());
+    }
+
+    /**
+     * Runs {@link #warmUp(Object, int)} on the mapper's own executor.
+     *
+     * @param sample a representative object of a mapped type
+     * @param iterations the number of round trips
+     * @return a future completed when the mapper is warmed up, or with an XmlMappingException
+     */
+    public CompletableFuture<Void> warmUpAsync(Object sample, int iterations) {
+        return supplyAsync(() -> {
+            warmUp(sample, iterations);
+            return null;
+        }, asyncExecutor());
     }
 
     /**
@@ -99,7 +267,7 @@ public class XmlMapper {
      */
     @SuppressWarnings("unchecked")
     public <T> T fromXml(String xml, Class<T> clazz, boolean validate) {
-        Object object = fromXml(xml, validate);
+        Object object = unmarshalString(xml, clazz, validate);
 
         if (object != null && clazz.isInstance(object)) {
             return (T) object;
@@ -117,22 +285,29 @@ public class XmlMapper {
      * @throws XmlMappingException if unmarshaling fails
      */
     public Object fromXml(String xml, boolean validate) {
-        try {
-            Unmarshaller unmarshaller = context.createUnmarshaller();
+        return unmarshalString(xml, Object.class, validate);
+    }
+
+    /**
+     * Unmarshals an XML string, failing on the root element if it is not bound to the expected type.
+     *
+     * @param expected the expected root type, {@code Object} for no check
+     */
+    private Object unmarshalString(String xml, Class<?> expected, boolean validate) {
+        if (validate && schemaLocation == null) {
+            throw new XmlMappingException("Schema validation requested but no schema configured");
+        }
+        if (validate && maxValidationErrors > 0) {
+            return unmarshal(expected, xml.length(),
+                    u -> unmarshalCollectingErrors(u, new InputSource(new StringReader(xml)), expected));
+        }
 
+        return unmarshal(expected, xml.length(), u -> {
             if (validate) {
-                if (schema == null) {
-                    throw new XmlMappingException("Schema validation requested but no schema configured");
-                }
-                unmarshaller.setSchema(schema);
+                u.setSchema(model().schema);
             }
-
-            return unmarshaller.unmarshal(new StringReader(xml));
-
-        } catch (JAXBException e) {
-            LOG.error("Failed to unmarshal XML: {}", e.getMessage(), e);
-            throw new XmlMappingException("Failed to unmarshal XML: " + e.getMessage(), e);
-        }
+            return unmarshal(u, new InputSource(new StringReader(xml)), expected);
+        });
     }
 
     /**
@@ -147,27 +322,498 @@ public class XmlMapper {
      */
     @SuppressWarnings("unchecked")
     public <T> T fromXml(InputStream inputStream, Class<T> clazz, boolean validate) {
+        long size = metricsEnabled ? knownSize(inputStream) : -1;
+        Object object;
+        if (validate && schemaLocation != null && maxValidationErrors > 0) {
+            object = unmarshal(clazz, size, u -> unmarshalCollectingErrors(u, new InputSource(inputStream), clazz));
+        } else {
+            object = unmarshal(clazz, size, u -> {
+                if (validate && schemaLocation != null) {
+                    u.setSchema(model().schema);
+                }
+                return unmarshal(u, new InputSource(inputStream), clazz);
+            });
+        }
+
+        if (object != null && clazz.isInstance(object)) {
+            return (T) object;
+        }
+
+        throw new XmlMappingException("XML does not match expected type: " + clazz.getName());
+    }
+
+    /**
+     * Reads the first start tag of an XML string and resolves the class its root element is bound
+     * to, without binding anything.
+     *
+     * @param xml the XML string
+     * @return the root element name and mapped class
+     * @throws XmlMappingException if the XML has no well-formed start tag
+     */
+    public RootInfo peekRoot(String xml) {
+        try {
+            return peekRoot(StaxFactories.input().createXMLStreamReader(new StringReader(xml)));
+        } catch (XMLStreamException e) {
+            throw new XmlMappingException("Failed to read XML stream: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the first start tag of an XML document and resolves the class its root element is bound
+     * to, without binding anything.
+     *
+     * @param bytes the XML document
+     * @return the root element name and mapped class
+     * @throws XmlMappingException if the XML has no well-formed start tag
+     */
+    public RootInfo peekRoot(byte[] bytes) {
+        return peekRoot(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Reads the first start tag of an XML input stream and resolves the class its root element is
+     * bound to, without binding anything. The parser reads ahead, so the stream cannot be used to
+     * unmarshal the same document afterwards unless it is reset.
+     *
+     * @param inputStream the XML input stream
+     * @return the root element name and mapped class
+     * @throws XmlMappingException if the XML has no well-formed start tag
+     */
+    public RootInfo peekRoot(InputStream inputStream) {
         try {
-            Unmarshaller unmarshaller = context.createUnmarshaller();
+            return peekRoot(StaxFactories.input().createXMLStreamReader(inputStream));
+        } catch (XMLStreamException e) {
+            throw new XmlMappingException("Failed to read XML stream: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Advances the reader to the root element and resolves it. The reader is left on the start tag.
+     */
+    RootInfo peekRoot(XMLStreamReader reader) throws XMLStreamException {
+        toRootElement(reader);
+        return rootElements().resolve(reader);
+    }
+
+    /**
+     * Advances the reader to the start tag of the root element.
+     */
+    static void toRootElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+            if (!reader.hasNext()) {
+                throw new XMLStreamException("No root element found");
+            }
+            reader.next();
+        }
+    }
+
+    /**
+     * Returns whether typed unmarshaling should check the root element before binding.
+     */
+    private boolean checksRoot(Class<?> clazz) {
+        return clazz != Object.class && !rootElements().isEmpty();
+    }
+
+    private static void checkRoot(RootInfo root, Class<?> clazz) {
+        Class<?> type = root.getResultType();
+        if (type != null && !clazz.isAssignableFrom(type)) {
+            throw new XmlMappingException("XML does not match expected type: " + clazz.getName()
+                    + ", root element " + root);
+        }
+    }
+
+    /**
+     * Unmarshals a document with the same parser settings as {@code unmarshal(InputStream)}, checking
+     * the root element against the expected type as soon as its start tag has been read.
+     */
+    private Object unmarshal(Unmarshaller unmarshaller, InputSource input, Class<?> expected) throws JAXBException {
+        if (!checksRoot(expected)) {
+            return unmarshaller.unmarshal(input);
+        }
+        return unmarshaller.unmarshal(new SAXSource(rootElements().filter(root -> checkRoot(root, expected)), input));
+    }
 
-            if (validate && schema != null) {
-                unmarshaller.setSchema(schema);
+    /**
+     * Returns the number of bytes in streams that hold their whole content in memory, -1 for others.
+     */
+    private static long knownSize(InputStream inputStream) {
+        try {
+            if (inputStream instanceof ByteArrayInputStream || inputStream instanceof ByteBufferInputStream) {
+                return inputStream.available();
             }
+        } catch (IOException e) {
+            // fall through to unknown
+        }
+        return -1;
+    }
+
+    /**
+     * Converts a range of XML bytes to object of the specified type. The parser reads the bytes
+     * directly and detects their encoding from the XML declaration.
+     *
+     * @param <T> the expected type
+     * @param bytes the buffer containing the XML document
+     * @param offset the start of the document in the buffer
+     * @param length the length of the document in bytes
+     * @param clazz the target class
+     * @return the unmarshaled object
+     * @throws XmlMappingException if unmarshaling fails or type doesn't match
+     */
+    public <T> T fromXml(byte[] bytes, int offset, int length, Class<T> clazz) {
+        return fromXml(new ByteArrayInputStream(bytes, offset, length), clazz, false);
+    }
+
+    /**
+     * Converts the remaining XML bytes of a buffer to object of the specified type. Heap and direct
+     * buffers are read in place; the position of the buffer is not changed.
+     *
+     * @param <T> the expected type
+     * @param buffer the buffer containing the XML document between its position and limit
+     * @param clazz the target class
+     * @return the unmarshaled object
+     * @throws XmlMappingException if unmarshaling fails or type doesn't match
+     */
+    public <T> T fromXml(ByteBuffer buffer, Class<T> clazz) {
+        if (buffer.hasArray()) {
+            return fromXml(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), clazz);
+        }
+        return fromXml(new ByteBufferInputStream(buffer.duplicate()), clazz, false);
+    }
+
+    /**
+     * Converts many XML strings in parallel. Documents are unmarshaled in chunks on the given
+     * executor and on the calling thread, which runs the chunks no worker has started yet, each thread
+     * reusing its own pooled unmarshaller. A failing document does not fail the batch; its error is
+     * returned in its place.
+     *
+     * @param <T> the expected type
+     * @param xmls the XML strings
+     * @param clazz the target class
+     * @param executor the executor to run the chunks on
+     * @return one result per document, in input order
+     */
+    public <T> List<BatchResult<T>> fromXmlAll(Collection<String> xmls, Class<T> clazz, Executor executor) {
+        return BatchExecutor.run(xmls, xml -> fromXml(xml, clazz), executor, "Failed to unmarshal XML");
+    }
+
+    /**
+     * Converts many XML byte arrays in parallel. Documents are unmarshaled in chunks on the given
+     * executor and on the calling thread, which runs the chunks no worker has started yet, each thread
+     * reusing its own pooled unmarshaller. A failing document does not fail the batch; its error is
+     * returned in its place.
+     *
+     * @param <T> the expected type
+     * @param documents the XML documents as bytes
+     * @param clazz the target class
+     * @param executor the executor to run the chunks on
+     * @return one result per document, in input order
+     */
+    public <T> List<BatchResult<T>> fromXmlBytesAll(Collection<byte[]> documents, Class<T> clazz, Executor executor) {
+        return BatchExecutor.run(documents, bytes -> fromXml(bytes, 0, bytes.length, clazz), executor,
+                "Failed to unmarshal XML");
+    }
+
+    /**
+     * Converts XML string to object of the specified type on the mapper's own executor, keeping XML
+     * work off the calling thread. The executor has a bounded queue; when it is full the returned
+     * future fails with a {@link RejectedExecutionException} instead of queueing more work.
+     *
+     * @param <T> the expected type
+     * @param xml the XML string
+     * @param clazz the target class
+     * @return a future completed with the unmarshaled object, or with an XmlMappingException
+     * @see Builder#asyncExecutor(int, int)
+     */
+    public <T> CompletableFuture<T> fromXmlAsync(String xml, Class<T> clazz) {
+        return fromXmlAsync(xml, clazz, asyncExecutor());
+    }
+
+    /**
+     * Converts XML string to object of the specified type on the given executor. If the executor
+     * rejects the task, the returned future fails with its {@link RejectedExecutionException}.
+     *
+     * @param <T> the expected type
+     * @param xml the XML string
+     * @param clazz the target class
+     * @param executor the executor to unmarshal on
+     * @return a future completed with the unmarshaled object, or with an XmlMappingException
+     */
+    public <T> CompletableFuture<T> fromXmlAsync(String xml, Class<T> clazz, Executor executor) {
+        return supplyAsync(() -> fromXml(xml, clazz), executor);
+    }
+
+    /**
+     * Validates an XML string against the schema without unmarshaling it.
+     *
+     * @param xml the XML string
+     * @return the validation outcome with all problems found
+     * @throws XmlMappingException if no schema is configured or the input cannot be read
+     */
+    public ValidationResult validate(String xml) {
+        return validate(new InputSource(new StringReader(xml)));
+    }
+
+    /**
+     * Validates an XML input stream against the schema without unmarshaling it.
+     *
+     * @param inputStream the XML input stream
+     * @return the validation outcome with all problems found
+     * @throws XmlMappingException if no schema is configured or the input cannot be read
+     */
+    public ValidationResult validate(InputStream inputStream) {
+        return validate(new InputSource(inputStream));
+    }
+
+    /**
+     * Validates XML bytes against the schema without unmarshaling them.
+     *
+     * @param bytes the XML document
+     * @return the validation outcome with all problems found
+     * @throws XmlMappingException if no schema is configured or the input cannot be read
+     */
+    public ValidationResult validate(byte[] bytes) {
+        return validate(new ByteArrayInputStream(bytes));
+    }
+
+    private ValidationResult validate(InputSource input) {
+        if (schemaLocation == null) {
+            throw new XmlMappingException("Schema validation requested but no schema configured");
+        }
+        ValidationResult result = model().validator.validate(input,
+                maxValidationErrors > 0 ? maxValidationErrors : SchemaValidator.UNLIMITED);
+        if (metricsEnabled && !result.isValid()) {
+            metrics.onValidationFailure(result.getErrors().size());
+        }
+        return result;
+    }
 
-            Object object = unmarshaller.unmarshal(inputStream);
+    /**
+     * Validates and unmarshals in a single pass, collecting problems up to the error budget.
+     */
+    private Object unmarshalCollectingErrors(Unmarshaller unmarshaller, InputSource input, Class<?> expected)
+            throws JAXBException {
+        UnmarshallerHandler handler = unmarshaller.getUnmarshallerHandler();
+        ContentHandler target = handler;
+        if (checksRoot(expected)) {
+            XMLFilterImpl filter = rootElements().filter(root -> checkRoot(root, expected));
+            filter.setContentHandler(handler);
+            target = filter;
+        }
 
-            if (object != null && clazz.isInstance(object)) {
-                return (T) object;
+        ValidationResult result = model().validator.validate(input, maxValidationErrors, unmarshaller, target);
+        if (!result.isValid()) {
+            if (metricsEnabled) {
+                metrics.onValidationFailure(result.getErrors().size());
             }
+            XmlValidationException exception = new XmlValidationException(result, !lightweightExceptions);
+            failureReporter.report("Failed to unmarshal XML", exception);
+            throw exception;
+        }
+
+        return handler.getResult();
+    }
 
-            throw new XmlMappingException("XML does not match expected type: " + clazz.getName());
+    /**
+     * Iterates over the repeating elements with the given name in a (potentially very large) XML
+     * document, unmarshaling one record at a time. The caller remains responsible for closing the
+     * input stream.
+     *
+     * @param <T> the record type
+     * @param inputStream the XML input stream
+     * @param recordName the qualified name of the repeating element
+     * @param clazz the record class
+     * @return an iterator over the records, which should be closed when not fully consumed
+     * @throws XmlMappingException if the stream cannot be read or a record cannot be unmarshaled
+     */
+    public <T> XmlRecordIterator<T> iterate(InputStream inputStream, QName recordName, Class<T> clazz) {
+        try {
+            XMLStreamReader reader = StaxFactories.input().createXMLStreamReader(inputStream);
+            return new XmlRecordIterator<>(this, reader, recordName, clazz);
+        } catch (XMLStreamException e) {
+            throw new XmlMappingException("Failed to read XML stream: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Streams the repeating elements with the given name in a (potentially very large) XML
+     * document, unmarshaling one record at a time. Closing the returned stream releases the parser,
+     * but not the input stream.
+     *
+     * @param <T> the record type
+     * @param inputStream the XML input stream
+     * @param recordName the qualified name of the repeating element
+     * @param clazz the record class
+     * @return a sequential stream of records
+     * @throws XmlMappingException if the stream cannot be read or a record cannot be unmarshaled
+     */
+    public <T> Stream<T> stream(InputStream inputStream, QName recordName, Class<T> clazz) {
+        XmlRecordIterator<T> iterator = iterate(inputStream, recordName, clazz);
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(iterator::close);
+    }
+
+    /**
+     * Creates a publisher for the repeating child elements with the given name of a document that
+     * arrives in chunks, for example from a non-blocking socket. Records are unmarshaled as the
+     * subscriber requests them. Requires {@code org.reactivestreams:reactive-streams} on the classpath.
+     *
+     * @param <T> the record type
+     * @param recordName the qualified name of the repeating element directly below the root
+     * @param clazz the record class
+     * @return a single-subscriber publisher, fed with {@link XmlRecordPublisher#feed(ByteBuffer)}
+     */
+    public <T> XmlRecordPublisher<T> publisher(QName recordName, Class<T> clazz) {
+        return new XmlRecordPublisher<>(this, recordName, clazz);
+    }
+
+    /**
+     * Creates a decoder for documents that arrive in chunks, for example one per non-blocking
+     * connection. Each document is unmarshaled as soon as its root element closes.
+     *
+     * @param <T> the document type
+     * @param clazz the target class
+     * @return a new decoder, to be used by one thread at a time
+     */
+    public <T> XmlIncrementalDecoder<T> newDecoder(Class<T> clazz) {
+        return newDecoder(clazz, false);
+    }
+
+    /**
+     * Creates a decoder for documents that arrive in chunks, optionally validating each document.
+     *
+     * @param <T> the document type
+     * @param clazz the target class
+     * @param validate whether to validate against the schema
+     * @return a new decoder, to be used by one thread at a time
+     */
+    public <T> XmlIncrementalDecoder<T> newDecoder(Class<T> clazz, boolean validate) {
+        return new XmlIncrementalDecoder<>(this, clazz, validate);
+    }
+
+    /**
+     * Starts building a dispatcher that unmarshals documents of different types and passes each to
+     * the handler registered for its root element.
+     *
+     * @return a new dispatcher builder
+     */
+    public XmlDispatcher.Builder dispatcher() {
+        return new XmlDispatcher.Builder(this);
+    }
+
+    /**
+     * Binds only the given fields of an XML string. Other elements are skipped without being bound,
+     * and parsing stops once all fields have been found.
+     *
+     * @param xml the XML string
+     * @param spec the fields to bind
+     * @return the fields found in the document
+     * @throws XmlMappingException if the XML cannot be read or a field cannot be unmarshaled
+     */
+    public Projection project(String xml, ProjectionSpec spec) {
+        try {
+            return project(StaxFactories.input().createXMLStreamReader(new StringReader(xml)), spec);
+        } catch (XMLStreamException e) {
+            throw new XmlMappingException("Failed to read XML stream: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Binds only the given fields of an XML input stream. Reading stops once all fields have been
+     * found; the input stream is not closed.
+     *
+     * @param inputStream the XML input stream
+     * @param spec the fields to bind
+     * @return the fields found in the document
+     * @throws XmlMappingException if the XML cannot be read or a field cannot be unmarshaled
+     */
+    public Projection project(InputStream inputStream, ProjectionSpec spec) {
+        try {
+            return project(StaxFactories.input().createXMLStreamReader(inputStream), spec);
+        } catch (XMLStreamException e) {
+            throw new XmlMappingException("Failed to read XML stream: " + e.getMessage(), e);
+        }
+    }
+
+    private Projection project(XMLStreamReader reader, ProjectionSpec spec) throws XMLStreamException {
+        try {
+            return spec.project(this, reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Unmarshals the element the reader is positioned on, leaving the reader after its end tag.
+     */
+    <T> T unmarshal(XMLStreamReader reader, Class<T> clazz) {
+        return clazz.cast(unmarshal(clazz, -1, u -> u.unmarshal(reader, clazz).getValue()));
+    }
+
+    /**
+     * Unmarshals with a borrowed unmarshaller, reporting the outcome to the metrics listener.
+     *
+     * @param expected the expected root type, reported if unmarshaling fails
+     * @param size the input size reported to the metrics listener, -1 if not known
+     */
+    private Object unmarshal(Class<?> expected, long size, UnmarshalAction action) {
+        long start = metricsEnabled ? System.nanoTime() : 0L;
+        Object object = null;
+        Unmarshaller unmarshaller = null;
+        try {
+            unmarshaller = unmarshallers.borrow();
+            object = action.unmarshal(unmarshaller);
+            return object;
 
         } catch (JAXBException e) {
-            LOG.error("Failed to unmarshal XML: {}", e.getMessage(), e);
-            throw new XmlMappingException("Failed to unmarshal XML: " + e.getMessage(), e);
+            if (metricsEnabled && unmarshaller != null && unmarshaller.getSchema() != null) {
+                metrics.onValidationFailure(1);
+            }
+            throw unmarshalFailure(e);
+        } finally {
+            unmarshallers.release(unmarshaller);
+            if (metricsEnabled) {
+                metrics.onUnmarshal(object != null ? OutputBuffers.type(object) : expected,
+                        System.nanoTime() - start, size, object != null);
+            }
         }
     }
 
+    /**
+     * Opens a writer for a document with the given wrapper element around repeating records.
+     * Output is buffered in a fixed-size buffer and written as records are added.
+     *
+     * @param <T> the record type
+     * @param outputStream the destination, closed when the writer is closed
+     * @param wrapperName the qualified name of the wrapper element
+     * @return a writer that must be closed to complete the document
+     * @throws XmlMappingException if the document cannot be started
+     */
+    public <T> XmlRecordWriter<T> openWriter(OutputStream outputStream, QName wrapperName) {
+        return new XmlRecordWriter<>(this, new BufferedOutputStream(outputStream, WRITER_BUFFER_SIZE), wrapperName);
+    }
+
+    /**
+     * Opens a writer for a document with the given wrapper element around repeating records.
+     * Output is buffered in a fixed-size buffer and written as records are added.
+     *
+     * @param <T> the record type
+     * @param channel the destination, closed when the writer is closed
+     * @param wrapperName the qualified name of the wrapper element
+     * @return a writer that must be closed to complete the document
+     * @throws XmlMappingException if the document cannot be started
+     */
+    public <T> XmlRecordWriter<T> openWriter(WritableByteChannel channel, QName wrapperName) {
+        return openWriter(Channels.newOutputStream(channel), wrapperName);
+    }
+
+    /**
+     * Marshals an object as fragment into a document that is being written.
+     */
+    void marshalFragment(Object object, XMLStreamWriter writer) {
+        marshal(object, MarshallerPool.FRAGMENT, null, m -> m.marshal(object, writer));
+    }
+
     /**
      * Converts object to XML string.
      *
@@ -188,37 +834,547 @@ public class XmlMapper {
      * @throws XmlMappingException if marshaling fails
      */
     public String toXml(Object object, boolean formatted) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        OutputBuffers.Buffer buffer = outputBuffers.borrow(object);
+        try {
+            marshal(object, formatted ? MarshallerPool.FORMATTED : MarshallerPool.COMPACT, buffer,
+                    m -> m.marshal(object, buffer));
+            return buffer.toUtf8String();
+        } finally {
+            outputBuffers.release(object, buffer);
+        }
+    }
 
+    /**
+     * Converts object to UTF-8 encoded XML bytes.
+     *
+     * @param object the object to marshal
+     * @return the XML document as bytes
+     * @throws XmlMappingException if marshaling fails
+     */
+    public byte[] toXmlBytes(Object object) {
+        OutputBuffers.Buffer buffer = outputBuffers.borrow(object);
+        try {
+            marshal(object, MarshallerPool.COMPACT, buffer, m -> m.marshal(object, buffer));
+            return buffer.toByteArray();
+        } finally {
+            outputBuffers.release(object, buffer);
+        }
+    }
+
+    /**
+     * Converts object to XML string on the mapper's own executor, keeping XML work off the calling
+     * thread. The executor has a bounded queue; when it is full the returned future fails with a
+     * {@link RejectedExecutionException} instead of queueing more work.
+     *
+     * @param object the object to marshal
+     * @return a future completed with the XML string, or with an XmlMappingException
+     * @see Builder#asyncExecutor(int, int)
+     */
+    public CompletableFuture<String> toXmlAsync(Object object) {
+        return toXmlAsync(object, asyncExecutor());
+    }
+
+    /**
+     * Converts object to XML string on the given executor. If the executor rejects the task, the
+     * returned future fails with its {@link RejectedExecutionException}.
+     *
+     * @param object the object to marshal
+     * @param executor the executor to marshal on
+     * @return a future completed with the XML string, or with an XmlMappingException
+     */
+    public CompletableFuture<String> toXmlAsync(Object object, Executor executor) {
+        return supplyAsync(() -> toXml(object), executor);
+    }
+
+    /**
+     * Returns the number of asynchronous tasks waiting in the mapper's own executor queue.
+     *
+     * @return the queued task count, 0 if the executor has not been used yet
+     */
+    public int getAsyncQueueSize() {
+        ThreadPoolExecutor executor = this.asyncExecutor;
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    /**
+     * Returns how many more asynchronous tasks the mapper's own executor accepts before rejecting
+     * new ones. Callers can use this to slow down before submissions start failing.
+     *
+     * @return the remaining queue capacity
+     */
+    public int getAsyncRemainingCapacity() {
+        ThreadPoolExecutor executor = this.asyncExecutor;
+        return executor != null ? executor.getQueue().remainingCapacity() : asyncQueueCapacity;
+    }
+
+    private static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
         try {
-            Marshaller marshaller = context.createMarshaller();
+            return CompletableFuture.supplyAsync(supplier, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private ThreadPoolExecutor asyncExecutor() {
+        ThreadPoolExecutor executor = this.asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.asyncExecutor;
+                if (executor == null) {
+                    executor = createAsyncExecutor(asyncThreads, asyncQueueCapacity);
+                    this.asyncExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static ThreadPoolExecutor createAsyncExecutor(int threads, int queueCapacity) {
+        final AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "xml-mapper-async-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Converts many objects to UTF-8 encoded XML bytes in parallel. Objects are marshaled in chunks
+     * on the given executor and on the calling thread, which runs the chunks no worker has started
+     * yet, each thread reusing its own pooled marshaller and output buffer. A failing object does not
+     * fail the batch; its error is returned in its place.
+     *
+     * @param objects the objects to marshal
+     * @param executor the executor to run the chunks on
+     * @return one result per object, in input order, each holding an exactly sized byte array
+     */
+    public List<BatchResult<byte[]>> toXmlAll(List<?> objects, Executor executor) {
+        return BatchExecutor.run(objects, this::toXmlBytes, executor, "Failed to marshal object to XML");
+    }
+
+    /**
+     * Marshals many objects in parallel and writes them, in input order, to one output stream.
+     * Each object is written as UTF-8 XML fragment without XML declaration, so the caller can wrap the
+     * output in an enclosing element. Objects are processed in windows of
+     * {@link Builder#batchWindowSize(int)} objects, whose documents are held in memory until they are
+     * written, so memory use grows with the window size and document size but not with the number of
+     * objects. Objects that fail to marshal are skipped. The stream is not closed.
+     *
+     * @param objects the objects to marshal
+     * @param executor the executor to run the chunks on
+     * @param outputStream the destination
+     * @return the failures by index of the failed object, empty if all objects were written
+     * @throws XmlMappingException if writing to the output stream fails
+     */
+    public SortedMap<Integer, XmlMappingException> toXmlAll(List<?> objects, Executor executor,
+                                                           OutputStream outputStream) {
+        SortedMap<Integer, XmlMappingException> failures = new TreeMap<>();
 
-            if (formatted) {
-                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        for (int start = 0; start < objects.size(); start += batchWindowSize) {
+            List<?> window = objects.subList(start, Math.min(start + batchWindowSize, objects.size()));
+            List<BatchResult<byte[]>> results = BatchExecutor.run(window, this::toXmlFragmentBytes, executor,
+                    "Failed to marshal object to XML");
+
+            try {
+                for (int i = 0; i < results.size(); i++) {
+                    BatchResult<byte[]> result = results.get(i);
+                    if (result.isSuccess()) {
+                        outputStream.write(result.getValue());
+                    } else {
+                        failures.put(start + i, result.getError());
+                    }
+                }
+            } catch (IOException e) {
+                throw new XmlMappingException("Failed to write XML: " + e.getMessage(), e);
             }
+        }
 
-            marshaller.marshal(object, outputStream);
-            return new String(outputStream.toByteArray(), UTF_8);
+        return failures;
+    }
+
+    private byte[] toXmlFragmentBytes(Object object) {
+        OutputBuffers.Buffer buffer = outputBuffers.borrow(object);
+        try {
+            marshal(object, MarshallerPool.FRAGMENT, buffer, m -> m.marshal(object, buffer));
+            return buffer.toByteArray();
+        } finally {
+            outputBuffers.release(object, buffer);
+        }
+    }
+
+    /**
+     * Marshals object as UTF-8 encoded XML directly to an output stream. The stream is not closed.
+     *
+     * @param object the object to marshal
+     * @param outputStream the destination
+     * @throws XmlMappingException if marshaling fails
+     */
+    public void toXml(Object object, OutputStream outputStream) {
+        marshal(object, MarshallerPool.COMPACT, null, m -> m.marshal(object, outputStream));
+    }
+
+    /**
+     * Marshals object as XML directly to a writer. The writer is not closed.
+     *
+     * @param object the object to marshal
+     * @param writer the destination
+     * @throws XmlMappingException if marshaling fails
+     */
+    public void toXml(Object object, Writer writer) {
+        marshal(object, MarshallerPool.COMPACT, null, m -> m.marshal(object, writer));
+    }
+
+    /**
+     * Marshals object as XML directly to an appendable, such as a StringBuilder.
+     *
+     * @param object the object to marshal
+     * @param appendable the destination
+     * @throws XmlMappingException if marshaling fails
+     */
+    public void toXml(Object object, Appendable appendable) {
+        Writer writer = appendable instanceof Writer ? (Writer) appendable : new AppendableWriter(appendable);
+        toXml(object, writer);
+    }
+
+    /**
+     * Marshals with a borrowed marshaller, reporting the outcome to the metrics listener.
+     *
+     * @param buffer the buffer the action writes to, whose size is reported, or null for other destinations
+     */
+    private void marshal(Object object, Map<String, Object> properties, OutputBuffers.Buffer buffer,
+                         MarshalAction action) {
+        long start = metricsEnabled ? System.nanoTime() : 0L;
+        boolean success = false;
+        Marshaller marshaller = null;
+        try {
+            marshaller = marshallers.borrow(properties);
+            action.marshal(marshaller);
+            success = true;
 
         } catch (JAXBException e) {
-            LOG.error("Failed to marshal object to XML: {}", e.getMessage(), e);
-            throw new XmlMappingException("Failed to marshal object to XML: " + e.getMessage(), e);
+            throw marshalFailure(e);
+        } finally {
+            marshallers.release(properties, marshaller);
+            if (metricsEnabled) {
+                metrics.onMarshal(OutputBuffers.type(object), System.nanoTime() - start,
+                        buffer != null ? buffer.size() : -1, success);
+            }
         }
     }
 
+    private XmlMappingException unmarshalFailure(JAXBException e) {
+        failureReporter.report("Failed to unmarshal XML", e);
+        return new XmlMappingException("Failed to unmarshal XML: " + FailureReporters.message(e), e,
+                !lightweightExceptions);
+    }
+
+    private XmlMappingException marshalFailure(JAXBException e) {
+        failureReporter.report("Failed to marshal object to XML", e);
+        return new XmlMappingException("Failed to marshal object to XML: " + FailureReporters.message(e), e);
+    }
+
+    private static void resetUnmarshaller(Unmarshaller unmarshaller) throws JAXBException {
+        unmarshaller.setSchema(null);
+        unmarshaller.setListener(null);
+        // The event handler is left alone: setting null installs DefaultValidationEventHandler, which
+        // prints every failure. Callers that install a handler restore the previous one themselves.
+    }
+
+    /**
+     * Returns the root element table, looked up on first use since it is only needed to check roots.
+     */
+    RootElements rootElements() {
+        Model model = model();
+        RootElements rootElements = model.rootElements;
+        if (rootElements == null) {
+            rootElements = JaxbContextCache.rootElements(model.context);
+            model.rootElements = rootElements;
+        }
+        return rootElements;
+    }
+
+    /**
+     * Returns the JAXBContext and schema, creating them on first use in lazy mode.
+     */
+    private Model model() {
+        Model model = this.model;
+        if (model == null) {
+            synchronized (modelLock) {
+                model = this.model;
+                if (model == null) {
+                    JAXBContext context = providedContext != null ? providedContext
+                            : JaxbContextCache.getContext(packageName, generatedAccessors);
+                    Schema schema = schemaLocation != null ? loadSchema(schemaLocation) : null;
+                    model = new Model(context, schema, schema != null ? new SchemaValidator(schema, poolSize) : null);
+                    this.model = model;
+                }
+            }
+        }
+        return model;
+    }
+
     private Schema loadSchema(String schemaLocation) {
         try {
-            SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
             URL schemaUrl = getClass().getClassLoader().getResource(schemaLocation);
 
             if (schemaUrl == null) {
                 throw new XmlMappingException("Schema file not found: " + schemaLocation);
             }
 
-            return schemaFactory.newSchema(schemaUrl);
+            return SchemaCache.getSchema(schemaUrl);
 
         } catch (Exception e) {
             throw new XmlMappingException("Failed to load schema: " + schemaLocation, e);
         }
     }
+
+    /**
+     * The JAXBContext and schema, which are expensive to create and so may be created lazily.
+     */
+    private static final class Model {
+
+        private final JAXBContext context;
+        private final Schema schema;
+        private final SchemaValidator validator;
+        private volatile RootElements rootElements;
+
+        Model(JAXBContext context, Schema schema, SchemaValidator validator) {
+            this.context = context;
+            this.schema = schema;
+            this.validator = validator;
+        }
+    }
+
+    /**
+     * Marshals to a specific destination with a borrowed marshaller.
+     */
+    private interface MarshalAction {
+        void marshal(Marshaller marshaller) throws JAXBException;
+    }
+
+    /**
+     * Unmarshals from a specific source with a borrowed unmarshaller.
+     */
+    private interface UnmarshalAction {
+        Object unmarshal(Unmarshaller unmarshaller) throws JAXBException;
+    }
+
+    /**
+     * Live view of the pools for the metrics listener.
+     */
+    private final class PoolStats implements XmlMetricsListener.PoolStats {
+
+        private final int poolSize;
+
+        PoolStats(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        @Override
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        @Override
+        public int getIdleUnmarshallers() {
+            return unmarshallers.idleCount();
+        }
+
+        @Override
+        public int getIdleMarshallers() {
+            return marshallers.idleCount();
+        }
+
+        @Override
+        public int getAsyncQueueSize() {
+            return XmlMapper.this.getAsyncQueueSize();
+        }
+    }
+
+    /**
+     * Builder for XmlMapper instances with non-default configuration.
+     */
+    public static final class Builder {
+
+        private final String packageName;
+        private final JAXBContext context;
+        private String schemaLocation;
+        private int poolSize = DEFAULT_POOL_SIZE;
+        private FailureReporter failureReporter = FailureReporter.logAll();
+        private boolean lightweightExceptions;
+        private int maxValidationErrors;
+        private int asyncThreads = Runtime.getRuntime().availableProcessors();
+        private int asyncQueueCapacity = DEFAULT_ASYNC_QUEUE_CAPACITY;
+        private int batchWindowSize = DEFAULT_BATCH_WINDOW_SIZE;
+        private XmlMetricsListener metrics = XmlMetricsListener.none();
+        private boolean lazyInit;
+        private boolean generatedAccessors;
+
+        private Builder(String packageName, JAXBContext context) {
+            this.packageName = packageName;
+            this.context = context;
+        }
+
+        /**
+         * Enables XSD schema validation support.
+         *
+         * @param schemaLocation resource path to XSD schema file, or null to disable validation
+         * @return this builder
+         */
+        public Builder schema(String schemaLocation) {
+            this.schemaLocation = schemaLocation;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of idle unmarshallers, and marshallers per output mode, shared between
+         * threads. Each thread additionally keeps one instance of its own. Use 0 to create a new
+         * instance per call.
+         *
+         * @param poolSize the maximum number of pooled instances, defaults to {@link #DEFAULT_POOL_SIZE}
+         * @return this builder
+         */
+        public Builder poolSize(int poolSize) {
+            if (poolSize < 0) {
+                throw new IllegalArgumentException("Pool size must not be negative: " + poolSize);
+            }
+            this.poolSize = poolSize;
+            return this;
+        }
+
+        /**
+         * Sets how marshaling and unmarshaling failures are reported before they are rethrown.
+         *
+         * @param failureReporter the reporter, defaults to {@link FailureReporter#logAll()}
+         * @return this builder
+         */
+        public Builder failureReporter(FailureReporter failureReporter) {
+            if (failureReporter == null) {
+                throw new IllegalArgumentException("failureReporter must not be null");
+            }
+            this.failureReporter = failureReporter;
+            return this;
+        }
+
+        /**
+         * Throws unmarshaling failures, such as malformed or invalid input, without capturing a stack
+         * trace for the XmlMappingException. The underlying JAXB exception is still available as cause.
+         * This includes the {@link XmlValidationException} thrown when validation errors are collected.
+         *
+         * @param lightweightExceptions whether to skip stack traces for unmarshaling failures
+         * @return this builder
+         */
+        public Builder lightweightExceptions(boolean lightweightExceptions) {
+            this.lightweightExceptions = lightweightExceptions;
+            return this;
+        }
+
+        /**
+         * Collects schema violations when unmarshaling with validation, instead of failing on the first
+         * one. Up to {@code maxErrors} problems are collected in a single pass, after which parsing stops
+         * and an {@link XmlValidationException} listing them is thrown. The same budget limits the
+         * problems reported by {@link XmlMapper#validate(String)}.
+         *
+         * @param maxErrors the error budget, or 0 to fail on the first error (the default)
+         * @return this builder
+         */
+        public Builder collectValidationErrors(int maxErrors) {
+            if (maxErrors < 0) {
+                throw new IllegalArgumentException("maxErrors must not be negative: " + maxErrors);
+            }
+            this.maxValidationErrors = maxErrors;
+            return this;
+        }
+
+        /**
+         * Sizes the executor the mapper creates on first use of {@code fromXmlAsync} or {@code toXmlAsync}
+         * without an explicit executor. Its threads are daemon threads that stop when idle.
+         *
+         * @param threads the maximum number of worker threads, defaults to the number of processors
+         * @param queueCapacity the maximum number of waiting tasks before new tasks are rejected, defaults to 1024
+         * @return this builder
+         */
+        public Builder asyncExecutor(int threads, int queueCapacity) {
+            if (threads <= 0 || queueCapacity <= 0) {
+                throw new IllegalArgumentException("threads and queueCapacity must be positive");
+            }
+            this.asyncThreads = threads;
+            this.asyncQueueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets how many objects {@link XmlMapper#toXmlAll(List, Executor, OutputStream)} marshals
+         * ahead of writing. Their marshaled documents are held in memory together, so this bounds
+         * the memory used by a batch to about this many times the largest document.
+         *
+         * @param batchWindowSize the number of objects per window, defaults to 16 per processor
+         * @return this builder
+         */
+        public Builder batchWindowSize(int batchWindowSize) {
+            if (batchWindowSize <= 0) {
+                throw new IllegalArgumentException("Batch window size must be positive: " + batchWindowSize);
+            }
+            this.batchWindowSize = batchWindowSize;
+            return this;
+        }
+
+        /**
+         * Sets the listener receiving timings, sizes and validation failures of mapping operations.
+         *
+         * @param metrics the listener, defaults to {@link XmlMetricsListener#none()}, which skips measuring
+         * @return this builder
+         */
+        public Builder metricsListener(XmlMetricsListener metrics) {
+            if (metrics == null) {
+                throw new IllegalArgumentException("metrics must not be null");
+            }
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Defers creating the JAXBContext and compiling the schema until the mapper is first used or
+         * warmed up, so that creating mappers does not slow down application startup. Configuration
+         * errors such as an unknown package then surface on first use.
+         *
+         * @param lazyInit whether to initialize on first use, defaults to false
+         * @return this builder
+         * @see XmlMapper#warmUpAsync()
+         */
+        public Builder lazyInit(boolean lazyInit) {
+            this.lazyInit = lazyInit;
+            return this;
+        }
+
+        /**
+         * Binds fields and properties through the accessors generated by {@link XmlAccessorProcessor}
+         * instead of reflection. The model package must be annotated with {@link GenerateAccessors}
+         * and {@code @XmlAccessorFactory(JaxbAccessorFactory.class)}. Has no effect for a builder with
+         * an existing context; create that context with the {@code com.sun.xml.bind.XmlAccessorFactory}
+         * property instead.
+         *
+         * @param generatedAccessors whether to use generated accessors, defaults to false
+         * @return this builder
+         */
+        public Builder generatedAccessors(boolean generatedAccessors) {
+            this.generatedAccessors = generatedAccessors;
+            return this;
+        }
+
+        /**
+         * Creates the configured XmlMapper.
+         *
+         * @return a new XmlMapper
+         * @throws XmlMappingException if JAXBContext or Schema creation fails
+         */
+        public XmlMapper build() {
+            return new XmlMapper(this);
+        }
+    }
 }
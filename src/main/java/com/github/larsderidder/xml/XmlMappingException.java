@@ -12,4 +12,16 @@ public class XmlMappingException extends RuntimeException {
     public XmlMappingException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Creates an exception that optionally skips capturing its stack trace, which makes it cheap
+     * to throw for expected failures such as invalid input.
+     *
+     * @param message the detail message
+     * @param cause the underlying exception
+     * @param writableStackTrace whether the stack trace should be captured
+     */
+    public XmlMappingException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, true, writableStackTrace);
+    }
 }
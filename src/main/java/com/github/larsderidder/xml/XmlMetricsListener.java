@@ -0,0 +1,95 @@
+package com.github.larsderidder.xml;
+
+/**
+ * Receives timings, sizes and validation outcomes of XmlMapper operations. Implementations must be
+ * thread-safe and fast, as they are called on the mapping thread. When no listener is configured,
+ * XmlMapper skips all measurements, including reading the clock.
+ *
+ * @see XmlMapper.Builder#metricsListener(XmlMetricsListener)
+ * @see MicrometerMetricsListener
+ */
+public interface XmlMetricsListener {
+
+    /**
+     * Called after each unmarshaling operation.
+     *
+     * @param type the type of the unmarshaled root object, or the expected type if unmarshaling failed
+     * @param durationNanos the duration of the operation in nanoseconds
+     * @param inputSize the input size in bytes, or in characters for String input; -1 if not known,
+     *                  as for streams read incrementally
+     * @param success whether an object was produced
+     */
+    void onUnmarshal(Class<?> type, long durationNanos, long inputSize, boolean success);
+
+    /**
+     * Called after each marshaling operation.
+     *
+     * @param type the type of the marshaled root object
+     * @param durationNanos the duration of the operation in nanoseconds
+     * @param outputSize the output size in bytes, or -1 if written to a caller's stream or writer
+     * @param success whether the object was marshaled completely
+     */
+    void onMarshal(Class<?> type, long durationNanos, long outputSize, boolean success);
+
+    /**
+     * Called when a document fails schema validation, either through {@code validate} or while
+     * unmarshaling with validation. When errors are not collected, each failed validating unmarshal
+     * counts as a single error.
+     *
+     * @param errorCount the number of problems reported for the document
+     */
+    void onValidationFailure(int errorCount);
+
+    /**
+     * Called once when a mapper is created with this listener, to expose its pools for sampling.
+     * Pool statistics are read on demand, so exposing them costs nothing on the mapping path.
+     *
+     * @param pools live view of the mapper's pools
+     */
+    default void bindPools(PoolStats pools) {
+    }
+
+    /**
+     * Returns a listener that records nothing. This is the default.
+     *
+     * @return the no-op listener
+     */
+    static XmlMetricsListener none() {
+        return NoopMetricsListener.INSTANCE;
+    }
+
+    /**
+     * Live view of a mapper's instance pools and asynchronous executor.
+     */
+    interface PoolStats {
+
+        /**
+         * Returns the maximum number of idle instances shared between threads per pool.
+         *
+         * @return the configured pool size
+         */
+        int getPoolSize();
+
+        /**
+         * Returns the number of unmarshallers idle in the shared pool. A pool that stays empty under
+         * load is fully utilized and may be too small.
+         *
+         * @return the idle unmarshaller count
+         */
+        int getIdleUnmarshallers();
+
+        /**
+         * Returns the number of marshallers idle in the shared pools, over all output modes.
+         *
+         * @return the idle marshaller count
+         */
+        int getIdleMarshallers();
+
+        /**
+         * Returns the number of tasks waiting for the mapper's own asynchronous executor.
+         *
+         * @return the queued task count
+         */
+        int getAsyncQueueSize();
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.larsderidder.xml;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over repeating records in a large XML document. The document is read with StAX and
+ * only one record is unmarshaled at a time, so memory use does not depend on the document size.
+ * <p>
+ * Closing the iterator releases the parser but does not close the underlying input stream.
+ *
+ * @param <T> the record type
+ * @see XmlMapper#iterate(java.io.InputStream, QName, Class)
+ */
+public class XmlRecordIterator<T> implements Iterator<T>, Closeable {
+
+    private final XmlMapper mapper;
+    private final XMLStreamReader reader;
+    private final QName recordName;
+    private final Class<T> clazz;
+
+    private T next;
+    private boolean finished;
+
+    XmlRecordIterator(XmlMapper mapper, XMLStreamReader reader, QName recordName, Class<T> clazz) {
+        this.mapper = mapper;
+        this.reader = reader;
+        this.recordName = recordName;
+        this.clazz = clazz;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+
+        try {
+            if (seek()) {
+                next = mapper.unmarshal(reader, clazz);
+                return true;
+            }
+        } catch (XMLStreamException e) {
+            close();
+            throw new XmlMappingException("Failed to read XML stream: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+
+        close();
+        return false;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            // nothing left to release
+        }
+    }
+
+    /**
+     * Advances to the next start element matching the record name. The current event is checked
+     * first, since unmarshaling a record leaves the reader on the event following its end tag.
+     */
+    private boolean seek() throws XMLStreamException {
+        int event = reader.getEventType();
+        while (true) {
+            if (event == XMLStreamConstants.START_ELEMENT && recordName.equals(reader.getName())) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_DOCUMENT || !reader.hasNext()) {
+                return false;
+            }
+            event = reader.next();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.github.larsderidder.xml;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the repeating records of an XML document that arrives in chunks, honoring subscriber
+ * demand. Chunks are pushed with {@link #feed(ByteBuffer)} from any thread and never block it:
+ * bytes are only framed into records, and a record is parsed and unmarshaled when the subscriber
+ * has requested it. While there is no demand, parsing pauses and input accumulates as raw bytes.
+ * <p>
+ * Records are the children of the root element whose name matches the record name; other
+ * children are skipped. The publisher supports a single subscriber. Input must use an
+ * ASCII-compatible encoding such as UTF-8.
+ * <p>
+ * This is a Reactive Streams publisher; on Java 9+ it can be adapted to
+ * {@code java.util.concurrent.Flow} with {@code org.reactivestreams.FlowAdapters}.
+ *
+ * @param <T> the record type
+ * @see XmlMapper#publisher(QName, Class)
+ */
+public class XmlRecordPublisher<T> implements Publisher<T> {
+
+    private final XmlMapper mapper;
+    private final QName recordName;
+    private final Class<T> clazz;
+    private final XmlElementScanner scanner = new XmlElementScanner(2);
+
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong requested = new AtomicLong();
+
+    private volatile Subscriber<? super T> subscriber;
+    private volatile boolean cancelled;
+    private volatile boolean inputComplete;
+    private volatile Throwable inputError;
+    private volatile Throwable requestError;
+    // Only accessed in the drain loop, which runs on one thread at a time
+    private boolean done;
+
+    XmlRecordPublisher(XmlMapper mapper, QName recordName, Class<T> clazz) {
+        this.mapper = mapper;
+        this.recordName = recordName;
+        this.clazz = clazz;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber must not be null");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(EmptySubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException("XmlRecordPublisher allows only one subscriber"));
+            return;
+        }
+
+        subscriber.onSubscribe(new RecordSubscription());
+        this.subscriber = subscriber;
+        drain();
+    }
+
+    /**
+     * Adds a chunk of the document. The chunk's remaining bytes are copied, so the caller may reuse it.
+     *
+     * @param chunk the next bytes of the document
+     * @return true if the subscriber currently has outstanding demand; false signals the caller to
+     *         slow down, as records are accumulating faster than they are consumed
+     */
+    public boolean feed(ByteBuffer chunk) {
+        if (inputComplete) {
+            throw new IllegalStateException("Input already completed");
+        }
+        synchronized (scanner) {
+            scanner.feed(chunk);
+        }
+        drain();
+        return requested.get() > 0 && !cancelled;
+    }
+
+    /**
+     * Signals the end of the document. The subscriber completes once all records have been delivered,
+     * or receives an error if the document is incomplete.
+     */
+    public void complete() {
+        inputComplete = true;
+        drain();
+    }
+
+    /**
+     * Signals that the input failed. Records already available are not delivered.
+     *
+     * @param error the input failure passed on to the subscriber
+     */
+    public void fail(Throwable error) {
+        inputError = error;
+        inputComplete = true;
+        drain();
+    }
+
+    /**
+     * Returns whether the subscriber has cancelled, so the caller can stop reading input.
+     *
+     * @return true if no more records are wanted
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            Subscriber<? super T> s = subscriber;
+            if (s != null && !done) {
+                emit(s);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void emit(Subscriber<? super T> s) {
+        Throwable error = requestError != null ? requestError : inputError;
+        if (error != null) {
+            terminate(s, error);
+            return;
+        }
+
+        long emitted = 0;
+        long demand = requested.get();
+
+        while (emitted != demand && !cancelled && requestError == null) {
+            byte[] element;
+            byte[] header;
+            byte[] footer;
+            try {
+                synchronized (scanner) {
+                    element = scanner.next();
+                    header = scanner.getHeader();
+                    footer = scanner.getFooter();
+                }
+            } catch (XmlMappingException e) {
+                terminate(s, e);
+                return;
+            }
+            if (element == null) {
+                break;
+            }
+
+            T record;
+            try {
+                record = unmarshal(header, element, footer);
+            } catch (RuntimeException e) {
+                terminate(s, e);
+                return;
+            }
+            if (record != null) {
+                s.onNext(record);
+                emitted++;
+            }
+        }
+
+        if (emitted != 0 && demand != Long.MAX_VALUE) {
+            requested.addAndGet(-emitted);
+        }
+
+        if (requestError != null) {
+            terminate(s, requestError);
+            return;
+        }
+
+        if (cancelled) {
+            done = true;
+            return;
+        }
+
+        if (inputComplete) {
+            boolean exhausted;
+            boolean complete;
+            try {
+                synchronized (scanner) {
+                    exhausted = !scanner.hasNext();
+                    complete = scanner.isAtBoundary();
+                }
+            } catch (XmlMappingException e) {
+                terminate(s, e);
+                return;
+            }
+
+            if (exhausted) {
+                done = true;
+                if (complete) {
+                    s.onComplete();
+                } else {
+                    s.onError(new XmlMappingException("Incomplete XML document"));
+                }
+            }
+        }
+    }
+
+    private void terminate(Subscriber<? super T> s, Throwable error) {
+        done = true;
+        cancelled = true;
+        s.onError(error);
+    }
+
+    /**
+     * Parses one child element with the root start tag in front of it, so that namespace
+     * declarations on the root apply, and unmarshals it if its name matches the record name.
+     */
+    private T unmarshal(byte[] header, byte[] element, byte[] footer) {
+        InputStream input = new SequenceInputStream(Collections.enumeration(Arrays.asList(
+                new ByteArrayInputStream(header), new ByteArrayInputStream(element), new ByteArrayInputStream(footer))));
+
+        XMLStreamReader reader = null;
+        try {
+            reader = StaxFactories.input().createXMLStreamReader(input);
+            nextStartElement(reader);
+            nextStartElement(reader);
+
+            if (!recordName.equals(reader.getName())) {
+                return null;
+            }
+            return mapper.unmarshal(reader, clazz);
+
+        } catch (XMLStreamException e) {
+            throw new XmlMappingException("Failed to read XML stream: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // nothing left to release
+                }
+            }
+        }
+    }
+
+    private static void nextStartElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+            if (!reader.hasNext()) {
+                throw new XMLStreamException("Expected start element");
+            }
+        }
+    }
+
+    private final class RecordSubscription implements Subscription {
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // Signalled from the drain loop, so it never overlaps with onNext on another thread
+                if (requestError == null) {
+                    requestError = new IllegalArgumentException("Request must be positive: " + n);
+                }
+                drain();
+                return;
+            }
+
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                if (current == Long.MAX_VALUE) {
+                    return;
+                }
+                next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+            } while (!requested.compareAndSet(current, next));
+
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private enum EmptySubscription implements Subscription {
+        INSTANCE;
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.larsderidder.xml;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a large XML document consisting of a wrapper element around repeating records, marshaling
+ * each record as soon as it is written instead of building the whole document in memory first.
+ * <p>
+ * Closing the writer ends the wrapper element and closes the underlying output.
+ *
+ * @param <T> the record type
+ * @see XmlMapper#openWriter(OutputStream, QName)
+ */
+public class XmlRecordWriter<T> implements Closeable, Flushable {
+
+    private final XmlMapper mapper;
+    private final OutputStream outputStream;
+    private final XMLStreamWriter writer;
+
+    private long count;
+    private boolean closed;
+
+    XmlRecordWriter(XmlMapper mapper, OutputStream outputStream, QName wrapperName) {
+        this.mapper = mapper;
+        this.outputStream = outputStream;
+
+        try {
+            this.writer = StaxFactories.output().createXMLStreamWriter(outputStream, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+
+            String namespace = wrapperName.getNamespaceURI();
+            if (namespace.isEmpty()) {
+                writer.writeStartElement(wrapperName.getLocalPart());
+            } else {
+                String prefix = wrapperName.getPrefix();
+                writer.writeStartElement(prefix, wrapperName.getLocalPart(), namespace);
+                if (prefix.isEmpty()) {
+                    writer.writeDefaultNamespace(namespace);
+                } else {
+                    writer.writeNamespace(prefix, namespace);
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new XmlMappingException("Failed to write XML stream: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Marshals one record into the document.
+     *
+     * @param record an object with an XML root element, or a JAXBElement
+     * @throws XmlMappingException if marshaling fails or the writer is closed
+     */
+    public void write(T record) {
+        if (closed) {
+            throw new XmlMappingException("Writer is closed");
+        }
+        mapper.marshalFragment(record, writer);
+        count++;
+    }
+
+    /**
+     * Returns the number of records written so far.
+     *
+     * @return the record count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+            outputStream.flush();
+        } catch (XMLStreamException | IOException e) {
+            throw new XmlMappingException("Failed to write XML stream: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        XmlMappingException failure = null;
+        try {
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        } catch (XMLStreamException e) {
+            failure = new XmlMappingException("Failed to write XML stream: " + e.getMessage(), e);
+        } finally {
+            // The output is released even if the document could not be completed
+            try {
+                outputStream.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = new XmlMappingException("Failed to write XML stream: " + e.getMessage(), e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
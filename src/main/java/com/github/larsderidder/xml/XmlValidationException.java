@@ -0,0 +1,52 @@
+package com.github.larsderidder.xml;
+
+import java.util.List;
+
+/**
+ * Exception thrown when a document fails schema validation while validation errors are being
+ * collected, carrying every problem found in the single validation pass.
+ *
+ * @see XmlMapper.Builder#collectValidationErrors(int)
+ */
+public class XmlValidationException extends XmlMappingException {
+
+    private final transient ValidationResult result;
+
+    /**
+     * Creates an exception for a document that failed validation.
+     *
+     * @param result the validation result holding the problems found
+     */
+    public XmlValidationException(ValidationResult result) {
+        this(result, true);
+    }
+
+    /**
+     * Creates an exception for a document that failed validation, optionally without capturing a
+     * stack trace, which makes it cheap to throw for expected invalid input.
+     *
+     * @param result the validation result holding the problems found
+     * @param writableStackTrace whether the stack trace should be captured
+     */
+    public XmlValidationException(ValidationResult result, boolean writableStackTrace) {
+        super(message(result), null, writableStackTrace);
+        this.result = result;
+    }
+
+    /**
+     * @return the problems found, in document order
+     */
+    public List<ValidationError> getErrors() {
+        return result.getErrors();
+    }
+
+    private static String message(ValidationResult result) {
+        List<ValidationError> errors = result.getErrors();
+        StringBuilder message = new StringBuilder("XML failed schema validation with ")
+                .append(errors.size()).append(errors.size() == 1 ? " problem" : " problems");
+        if (!errors.isEmpty()) {
+            message.append(", first: ").append(errors.get(0));
+        }
+        return message.toString();
+    }
+}
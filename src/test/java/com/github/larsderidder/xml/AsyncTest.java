@@ -0,0 +1,82 @@
+package com.github.larsderidder.xml;
+
+import com.github.larsderidder.xml.model.Order;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AsyncTest {
+
+    @Test
+    public void testRoundTripOnOwnExecutor() throws Exception {
+        XmlMapper mapper = new XmlMapper("com.github.larsderidder.xml.model");
+
+        String xml = mapper.toXmlAsync(new Order("1", "Jane", 3)).get(10, TimeUnit.SECONDS);
+        Order order = mapper.fromXmlAsync(xml, Order.class).get(10, TimeUnit.SECONDS);
+
+        assertEquals("Jane", order.getCustomer());
+    }
+
+    @Test
+    public void testFailureCompletesFutureExceptionally() throws Exception {
+        XmlMapper mapper = XmlMapper.builder("com.github.larsderidder.xml.model")
+                .failureReporter(FailureReporter.silent())
+                .build();
+
+        try {
+            mapper.fromXmlAsync("<order>", Order.class).get(10, TimeUnit.SECONDS);
+            fail("Expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof XmlMappingException);
+        }
+    }
+
+    @Test
+    public void testBoundedQueueRejectsWhenFull() throws Exception {
+        XmlMapper mapper = XmlMapper.builder(JAXBContext.newInstance(Blocking.class)).asyncExecutor(1, 1).build();
+
+        // Occupy the single worker and the single queue slot
+        CompletableFuture<String> running = mapper.toXmlAsync(new Blocking());
+        assertTrue(Blocking.STARTED.await(10, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = mapper.toXmlAsync(new Blocking());
+        assertEquals(0, mapper.getAsyncRemainingCapacity());
+        assertEquals(1, mapper.getAsyncQueueSize());
+
+        CompletableFuture<String> rejected = mapper.toXmlAsync(new Blocking());
+        assertTrue(rejected.isCompletedExceptionally());
+        try {
+            rejected.get();
+            fail("Expected ExecutionException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+
+        Blocking.RELEASE.countDown();
+        assertTrue(running.get(10, TimeUnit.SECONDS).contains("<value>v</value>"));
+        assertTrue(queued.get(10, TimeUnit.SECONDS).contains("<value>v</value>"));
+    }
+
+    @XmlRootElement
+    public static class Blocking {
+
+        static final CountDownLatch STARTED = new CountDownLatch(1);
+        static final CountDownLatch RELEASE = new CountDownLatch(1);
+
+        public String getValue() throws InterruptedException {
+            STARTED.countDown();
+            RELEASE.await(10, TimeUnit.SECONDS);
+            return "v";
+        }
+
+        public void setValue(String value) {
+        }
+    }
+}
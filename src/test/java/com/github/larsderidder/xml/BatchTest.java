@@ -0,0 +1,179 @@
+package com.github.larsderidder.xml;
+
+import com.github.larsderidder.xml.model.Order;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class BatchTest {
+
+    private final XmlMapper mapper = XmlMapper.builder("com.github.larsderidder.xml.model")
+            .failureReporter(FailureReporter.silent())
+            .build();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testFromXmlAllKeepsOrderAndCapturesErrors() {
+        List<String> xmls = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            xmls.add(i == 500 ? "<order>" : "<order><id>" + i + "</id></order>");
+        }
+
+        List<BatchResult<Order>> results = mapper.fromXmlAll(xmls, Order.class, executor);
+
+        assertEquals(1000, results.size());
+        for (int i = 0; i < 1000; i++) {
+            if (i == 500) {
+                assertFalse(results.get(i).isSuccess());
+                assertNotNull(results.get(i).getError());
+            } else {
+                assertEquals(String.valueOf(i), results.get(i).getValue().getId());
+            }
+        }
+    }
+
+    @Test
+    public void testFromXmlBytesAll() {
+        List<byte[]> documents = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            documents.add(("<order><id>" + i + "</id></order>").getBytes(UTF_8));
+        }
+
+        List<BatchResult<Order>> results = mapper.fromXmlBytesAll(documents, Order.class, executor);
+
+        assertEquals(10, results.size());
+        assertEquals("9", results.get(9).getValue().getId());
+    }
+
+    @Test
+    public void testDiscardingExecutorDoesNotHang() {
+        ThreadPoolExecutor discarding = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new ThreadPoolExecutor.DiscardPolicy());
+        try {
+            List<BatchResult<Order>> results = mapper.fromXmlAll(orders(50), Order.class, discarding);
+            assertEquals(50, results.size());
+            for (int i = 0; i < 50; i++) {
+                assertEquals(String.valueOf(i), results.get(i).getValue().getId());
+            }
+        } finally {
+            discarding.shutdown();
+        }
+    }
+
+    @Test
+    public void testBatchFromTaskOnSamePool() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            // The only worker is busy running the caller, so its chunks can only run on the caller
+            Future<List<BatchResult<Order>>> results = single.submit(
+                    () -> mapper.fromXmlAll(orders(20), Order.class, single));
+            assertEquals(20, results.get(10, TimeUnit.SECONDS).size());
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    public void testErrorsAreCapturedPerItem() {
+        List<BatchResult<String>> results = BatchExecutor.run(Arrays.asList("a", "b"), item -> {
+            if (item.equals("b")) {
+                throw new AssertionError("broken");
+            }
+            return item;
+        }, executor, "Failed");
+
+        assertEquals("a", results.get(0).getValue());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(1).getError().getCause() instanceof AssertionError);
+    }
+
+    private static List<String> orders(int count) {
+        List<String> xmls = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            xmls.add("<order><id>" + i + "</id></order>");
+        }
+        return xmls;
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        assertTrue(mapper.fromXmlAll(new ArrayList<String>(), Order.class, executor).isEmpty());
+    }
+
+    @Test
+    public void testToXmlAll() {
+        List<Object> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            orders.add(i == 50 ? "not a JAXB object" : new Order(String.valueOf(i), "c", i));
+        }
+
+        List<BatchResult<byte[]>> results = mapper.toXmlAll(orders, executor);
+
+        assertEquals(100, results.size());
+        assertFalse(results.get(50).isSuccess());
+        assertEquals("42", mapper.fromXml(new String(results.get(42).getValue(), UTF_8), Order.class).getId());
+    }
+
+    @Test
+    public void testToXmlAllConcatenated() {
+        List<Object> orders = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            orders.add(i == 1 ? "not a JAXB object" : new Order(String.valueOf(i), "c", i));
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SortedMap<Integer, XmlMappingException> failures = mapper.toXmlAll(orders, executor, output);
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey(1));
+        assertEquals("<order><id>0</id><customer>c</customer><quantity>0</quantity></order>"
+                + "<order><id>2</id><customer>c</customer><quantity>2</quantity></order>",
+                new String(output.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void testToXmlAllAcrossWindows() {
+        XmlMapper windowed = XmlMapper.builder("com.github.larsderidder.xml.model")
+                .failureReporter(FailureReporter.silent())
+                .batchWindowSize(2)
+                .build();
+        List<Object> orders = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            if (i == 3) {
+                orders.add("not a JAXB object");
+            } else {
+                orders.add(new Order(String.valueOf(i), "c", i));
+                expected.append("<order><id>").append(i).append("</id><customer>c</customer><quantity>")
+                        .append(i).append("</quantity></order>");
+            }
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SortedMap<Integer, XmlMappingException> failures = windowed.toXmlAll(orders, executor, output);
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey(3));
+        assertEquals(expected.toString(), new String(output.toByteArray(), UTF_8));
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.larsderidder.xml;
+
+import com.github.larsderidder.xml.model.Order;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.UnmarshalException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class FailureReporterTest {
+
+    @Test
+    public void testCustomReporterReceivesFailures() {
+        final List<String> reported = new ArrayList<>();
+        XmlMapper mapper = XmlMapper.builder("com.github.larsderidder.xml.model")
+                .failureReporter((message, cause) -> reported.add(message))
+                .build();
+
+        try {
+            mapper.fromXml("<order>", Order.class);
+            fail("Expected XmlMappingException");
+        } catch (XmlMappingException e) {
+            assertTrue(e.getMessage().startsWith("Failed to unmarshal XML"));
+            assertTrue(e.getStackTrace().length > 0);
+        }
+
+        assertEquals(1, reported.size());
+        assertEquals("Failed to unmarshal XML", reported.get(0));
+    }
+
+    @Test
+    public void testLightweightExceptions() {
+        XmlMapper mapper = XmlMapper.builder("com.github.larsderidder.xml.model")
+                .failureReporter(FailureReporter.silent())
+                .lightweightExceptions(true)
+                .build();
+
+        try {
+            mapper.fromXml("<order>", Order.class);
+            fail("Expected XmlMappingException");
+        } catch (XmlMappingException e) {
+            assertEquals(0, e.getStackTrace().length);
+            assertNotNull(e.getCause());
+        }
+    }
+
+    @Test
+    public void testLightweightValidationExceptions() throws Exception {
+        XmlMapper mapper = XmlMapper.builder(JAXBContext.newInstance(XmlMapperTest.TestUser.class))
+                .schema("test-user.xsd")
+                .collectValidationErrors(10)
+                .failureReporter(FailureReporter.silent())
+                .lightweightExceptions(true)
+                .build();
+
+        try {
+            mapper.fromXml("<testUser><name>Jane</name></testUser>", XmlMapperTest.TestUser.class, true);
+            fail("Expected XmlValidationException");
+        } catch (XmlValidationException e) {
+            assertEquals(0, e.getStackTrace().length);
+            assertFalse(e.getErrors().isEmpty());
+        }
+    }
+
+    @Test
+    public void testRateLimitedReporter() {
+        Exception cause = new Exception("broken");
+        long[] now = {0};
+        List<String> messages = new ArrayList<>();
+        List<Throwable> causes = new ArrayList<>();
+        FailureReporter reporter = new FailureReporters.RateLimited(2, () -> now[0], (message, logged) -> {
+            messages.add(message);
+            causes.add(logged);
+        });
+
+        for (int i = 0; i < 5; i++) {
+            reporter.report("Failed to unmarshal XML", cause);
+        }
+        assertEquals(2, messages.size());
+
+        now[0] = TimeUnit.SECONDS.toNanos(1);
+        reporter.report("Failed to unmarshal XML", cause);
+        reporter.report("Failed to unmarshal XML", cause);
+
+        assertEquals(4, messages.size());
+        assertEquals("Failed to unmarshal XML: broken", messages.get(0));
+        assertEquals("Failed to unmarshal XML: broken (3 similar failures suppressed)", messages.get(2));
+        assertEquals("Failed to unmarshal XML: broken", messages.get(3));
+        for (Throwable logged : causes) {
+            assertSame(cause, logged);
+        }
+    }
+
+    @Test
+    public void testSampledReporter() {
+        Exception cause = new Exception("broken");
+        List<String> messages = new ArrayList<>();
+        List<Throwable> causes = new ArrayList<>();
+        FailureReporter reporter = new FailureReporters.Sampled(3, (message, logged) -> {
+            messages.add(message);
+            causes.add(logged);
+        });
+
+        for (int i = 0; i < 7; i++) {
+            reporter.report("Failed to unmarshal XML", cause);
+        }
+
+        assertEquals(7, messages.size());
+        assertEquals("Failed to unmarshal XML: broken", messages.get(6));
+        // Only the first of every three failures is logged with its stack trace
+        assertEquals(Arrays.asList(cause, null, null, cause, null, null, cause), causes);
+    }
+
+    @Test
+    public void testReportsWrappedParserMessage() {
+        UnmarshalException cause = new UnmarshalException(new Exception("Unexpected end of file"));
+        List<String> messages = new ArrayList<>();
+        FailureReporter reporter = new FailureReporters.Sampled(1, (message, logged) -> messages.add(message));
+
+        reporter.report("Failed to unmarshal XML", cause);
+
+        assertEquals(Arrays.asList("Failed to unmarshal XML: Unexpected end of file"), messages);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRate() {
+        FailureReporter.rateLimited(0);
+    }
+}
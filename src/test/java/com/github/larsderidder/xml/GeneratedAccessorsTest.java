@@ -0,0 +1,60 @@
+package com.github.larsderidder.xml;
+
+import com.github.larsderidder.xml.accessors.Customer;
+import com.github.larsderidder.xml.accessors.Invoice;
+import com.github.larsderidder.xml.accessors.JaxbAccessorFactory;
+import com.sun.xml.bind.v2.runtime.reflect.Accessor;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GeneratedAccessorsTest {
+
+    private static final String INVOICE = "<invoice><number>F-1</number><amount>1250</amount>"
+            + "<customer><active>true</active><name>Jane</name></customer>"
+            + "<line>first</line><line>second</line><note>private</note></invoice>";
+
+    @Test
+    public void testRoundTripWithGeneratedAccessors() {
+        XmlMapper mapper = XmlMapper.builder("com.github.larsderidder.xml.accessors")
+                .generatedAccessors(true)
+                .build();
+
+        Invoice invoice = mapper.fromXml(INVOICE, Invoice.class);
+        assertEquals("F-1", invoice.getNumber());
+        assertEquals(1250L, invoice.getAmount());
+        assertEquals("Jane", invoice.getCustomer().getName());
+        assertTrue(invoice.getCustomer().isActive());
+        assertEquals(2, invoice.getLines().size());
+        assertEquals("private", invoice.getNote());
+
+        String xml = mapper.toXml(invoice);
+        assertTrue(xml.contains("<amount>1250</amount>"));
+        assertTrue(xml.contains("<line>second</line>"));
+        assertEquals("Jane", mapper.fromXml(xml, Invoice.class).getCustomer().getName());
+    }
+
+    @Test
+    public void testGeneratedFactory() throws Exception {
+        JaxbAccessorFactory factory = new JaxbAccessorFactory();
+
+        Accessor number = factory.createFieldAccessor(Invoice.class, Invoice.class.getDeclaredField("number"), false);
+        assertFalse(number instanceof Accessor.FieldReflection);
+        assertEquals(String.class, number.getValueType());
+
+        Accessor amount = factory.createFieldAccessor(Invoice.class, Invoice.class.getDeclaredField("amount"), false);
+        Invoice invoice = new Invoice();
+        amount.set(invoice, 7L);
+        assertEquals(7L, amount.get(invoice));
+
+        // Private fields are left to the runtime's reflective accessors
+        assertTrue(factory.createFieldAccessor(Invoice.class, Invoice.class.getDeclaredField("note"), false)
+                instanceof Accessor.FieldReflection);
+
+        Accessor active = factory.createPropertyAccessor(Customer.class, Customer.class.getMethod("isActive"),
+                Customer.class.getMethod("setActive", boolean.class));
+        Customer customer = new Customer();
+        active.set(customer, Boolean.TRUE);
+        assertTrue(customer.isActive());
+    }
+}
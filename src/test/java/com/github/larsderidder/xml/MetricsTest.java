@@ -0,0 +1,120 @@
+package com.github.larsderidder.xml;
+
+import com.github.larsderidder.xml.model.Order;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBContext;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    private static final String ORDER = "<order><id>1</id><customer>Jane</customer><quantity>2</quantity></order>";
+
+    @Test
+    public void testListenerReceivesOperations() {
+        RecordingListener listener = new RecordingListener();
+        XmlMapper mapper = XmlMapper.builder("com.github.larsderidder.xml.model")
+                .failureReporter(FailureReporter.silent())
+                .metricsListener(listener)
+                .build();
+
+        mapper.fromXml(ORDER, Order.class);
+        mapper.fromXml(ORDER.getBytes(UTF_8), 0, ORDER.length(), Order.class);
+        byte[] bytes = mapper.toXmlBytes(new Order("2", "John", 1));
+        mapper.toXml(new Order("3", "Joe", 1), new ByteArrayOutputStream());
+        try {
+            mapper.fromXml("<order>", Order.class);
+            fail("Expected XmlMappingException");
+        } catch (XmlMappingException expected) {
+            // expected
+        }
+
+        assertEquals(3, listener.unmarshals.size());
+        assertEquals("Order " + ORDER.length() + " true", listener.unmarshals.get(0));
+        assertEquals("Order " + ORDER.length() + " true", listener.unmarshals.get(1));
+        assertEquals("Order 7 false", listener.unmarshals.get(2));
+        assertEquals(2, listener.marshals.size());
+        assertEquals("Order " + bytes.length + " true", listener.marshals.get(0));
+        assertEquals("Order -1 true", listener.marshals.get(1));
+        assertNotNull(listener.pools);
+        assertEquals(XmlMapper.DEFAULT_POOL_SIZE, listener.pools.getPoolSize());
+    }
+
+    @Test
+    public void testValidationFailuresAreCounted() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        XmlMapper mapper = XmlMapper.builder(JAXBContext.newInstance(XmlMapperTest.TestUser.class))
+                .schema("test-user.xsd")
+                .failureReporter(FailureReporter.silent())
+                .metricsListener(listener)
+                .build();
+
+        String invalid = "<testUser><name>Jane</name></testUser>";
+        assertFalse(mapper.validate(invalid).isValid());
+        try {
+            mapper.fromXml(invalid, XmlMapperTest.TestUser.class, true);
+            fail("Expected XmlMappingException");
+        } catch (XmlMappingException expected) {
+            // expected
+        }
+
+        assertEquals(2, listener.validationFailures.size());
+        assertTrue(listener.validationFailures.get(0) >= 1);
+        assertEquals(Integer.valueOf(1), listener.validationFailures.get(1));
+    }
+
+    @Test
+    public void testMicrometerBinding() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        XmlMapper mapper = XmlMapper.builder("com.github.larsderidder.xml.model")
+                .metricsListener(new MicrometerMetricsListener(registry))
+                .build();
+
+        mapper.fromXml(ORDER, Order.class);
+        mapper.toXml(mapper.fromXml(ORDER, Order.class));
+
+        Timer unmarshal = registry.get("xml.mapper.unmarshal")
+                .tag("type", Order.class.getName()).tag("outcome", "success").timer();
+        assertEquals(2, unmarshal.count());
+        assertEquals(1, registry.get("xml.mapper.marshal").tag("outcome", "success").timer().count());
+        assertEquals(2 * ORDER.length(), registry.get("xml.mapper.unmarshal.size").summary().totalAmount(), 0.0);
+        assertTrue(registry.get("xml.mapper.pool.idle").tag("pool", "unmarshaller").gauge().value() >= 0);
+    }
+
+    private static final class RecordingListener implements XmlMetricsListener {
+
+        private final List<String> unmarshals = new ArrayList<>();
+        private final List<String> marshals = new ArrayList<>();
+        private final List<Integer> validationFailures = new ArrayList<>();
+        private PoolStats pools;
+
+        @Override
+        public void onUnmarshal(Class<?> type, long durationNanos, long inputSize, boolean success) {
+            assertTrue(durationNanos >= 0);
+            unmarshals.add(type.getSimpleName() + " " + inputSize + " " + success);
+        }
+
+        @Override
+        public void onMarshal(Class<?> type, long durationNanos, long outputSize, boolean success) {
+            assertTrue(durationNanos >= 0);
+            marshals.add(type.getSimpleName() + " " + outputSize + " " + success);
+        }
+
+        @Override
+        public void onValidationFailure(int errorCount) {
+            validationFailures.add(errorCount);
+        }
+
+        @Override
+        public void bindPools(PoolStats pools) {
+            this.pools = pools;
+        }
+    }
+}
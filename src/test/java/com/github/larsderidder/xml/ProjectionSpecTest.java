@@ -0,0 +1,83 @@
+package com.github.larsderidder.xml;
+
+import com.github.larsderidder.xml.model.Order;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class ProjectionSpecTest {
+
+    private static final String ENVELOPE = "<envelope version='2'>"
+            + "<header><route>eu-west</route><trace><id>t-1</id></trace></header>"
+            + "<body><payload><blob>skipped</blob></payload>"
+            + "<order><id>7</id><customer>Jane</customer><quantity>3</quantity></order></body>"
+            + "</envelope>";
+
+    private final XmlMapper mapper = new XmlMapper("com.github.larsderidder.xml.model");
+
+    @Test
+    public void testProjectsTextAttributesAndObjects() {
+        ProjectionSpec spec = ProjectionSpec.builder()
+                .text("route", "/envelope/header/route")
+                .text("version", "/envelope/@version")
+                .object("order", "/envelope/body/order", Order.class)
+                .text("missing", "/envelope/header/priority")
+                .build();
+
+        Projection projection = mapper.project(ENVELOPE, spec);
+
+        assertEquals("eu-west", projection.getText("route"));
+        assertEquals("2", projection.getText("version"));
+        assertEquals("Jane", projection.get("order", Order.class).getCustomer());
+        assertFalse(projection.has("missing"));
+        assertEquals(3, projection.asMap().size());
+    }
+
+    @Test
+    public void testStopsOnceAllFieldsAreFound() {
+        // Everything after the route is never read, so the broken tail does not matter
+        String xml = "<envelope><header><route>eu-west</route></header><body><unclosed></body>";
+        ProjectionSpec spec = ProjectionSpec.builder().text("route", "/envelope/header/route").build();
+
+        Projection projection = mapper.project(new ByteArrayInputStream(xml.getBytes(UTF_8)), spec);
+        assertEquals("eu-west", projection.getText("route"));
+    }
+
+    @Test
+    public void testOnlyFirstMatchAndNamespaces() {
+        String xml = "<m:msg xmlns:m='urn:msg' xmlns:x='urn:other'>"
+                + "<x:id>other</x:id><m:id>first</m:id><m:id>second</m:id></m:msg>";
+        ProjectionSpec qualified = ProjectionSpec.builder().text("id", "/{urn:msg}msg/{urn:msg}id").build();
+        assertEquals("first", mapper.project(xml, qualified).getText("id"));
+
+        ProjectionSpec unqualified = ProjectionSpec.builder().text("id", "/msg/id").build();
+        assertEquals("other", mapper.project(xml, unqualified).getText("id"));
+    }
+
+    @Test
+    public void testRejectsInvalidSpecs() {
+        assertInvalid(builder -> builder.text("a", "relative/path"));
+        assertInvalid(builder -> builder.text("a", "/root/a").text("a", "/root/b"));
+        assertInvalid(builder -> builder.text("a", "/root/a").text("b", "/root/a/b"));
+        assertInvalid(builder -> builder.text("a", "/root/a").text("b", "/root/{urn:x}a"));
+        assertInvalid(builder -> builder.object("a", "/root/@a", Order.class));
+    }
+
+    @Test(expected = XmlMappingException.class)
+    public void testMalformedXmlBeforeFields() {
+        mapper.project("<envelope><header>", ProjectionSpec.builder().text("route", "/envelope/header/route").build());
+    }
+
+    private static void assertInvalid(Consumer<ProjectionSpec.Builder> spec) {
+        try {
+            spec.accept(ProjectionSpec.builder());
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.larsderidder.xml;
+
+import com.github.larsderidder.xml.XmlMapperTest.TestAdmin;
+import com.github.larsderidder.xml.XmlMapperTest.TestUser;
+import com.github.larsderidder.xml.model.Order;
+import org.junit.Test;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class XmlDispatcherTest {
+
+    private static final String USER = "<testUser><name>Jane</name></testUser>";
+    private static final String ADMIN = "<testUser xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' "
+            + "xsi:type='testAdmin'><name>John</name><role>owner</role></testUser>";
+    private static final String ORDER = "<order><id>1</id><customer>Jane</customer><quantity>2</quantity></order>";
+
+    @Test
+    public void testRoutesByRootElement() throws Exception {
+        XmlMapper mapper = new XmlMapper(JAXBContext.newInstance(TestUser.class, TestAdmin.class, Order.class));
+        List<Object> users = new ArrayList<>();
+        List<Object> orders = new ArrayList<>();
+        List<RootInfo> unhandled = new ArrayList<>();
+
+        XmlDispatcher dispatcher = mapper.dispatcher()
+                .on(TestUser.class, users::add)
+                .on(Order.class, orders::add)
+                .on(new QName("legacyOrder"), Order.class, orders::add)
+                .otherwise(unhandled::add)
+                .build();
+
+        dispatcher.dispatch(USER);
+        dispatcher.dispatch(ADMIN.getBytes(UTF_8));
+        dispatcher.dispatch(new ByteArrayInputStream(ORDER.getBytes(UTF_8)));
+        dispatcher.dispatch(ORDER.replace("order>", "legacyOrder>"));
+        // Unhandled documents are not unmarshaled, so their content is never parsed
+        dispatcher.dispatch("<invoice><unclosed></invoice>");
+
+        assertEquals(2, users.size());
+        assertEquals("owner", ((TestAdmin) users.get(1)).getRole());
+        assertEquals(2, orders.size());
+        assertEquals("Jane", ((Order) orders.get(1)).getCustomer());
+        assertEquals(1, unhandled.size());
+        assertEquals(new QName("invoice"), unhandled.get(0).getName());
+    }
+
+    @Test
+    public void testClosestClassHandlesSubclassRoot() throws Exception {
+        XmlMapper mapper = new XmlMapper(JAXBContext.newInstance(SpecialOrder.class, Order.class));
+        List<Object> special = new ArrayList<>();
+
+        XmlDispatcher dispatcher = mapper.dispatcher()
+                .on(Order.class, order -> fail("Expected the SpecialOrder handler"))
+                .on(SpecialOrder.class, special::add)
+                .build();
+        dispatcher.dispatch("<specialOrder><id>1</id></specialOrder>");
+
+        assertEquals(1, special.size());
+    }
+
+    @Test
+    public void testSuperclassHandlerReceivesSubclassFields() throws Exception {
+        XmlMapper mapper = new XmlMapper(JAXBContext.newInstance(SpecialOrder.class, Order.class));
+        List<Order> orders = new ArrayList<>();
+
+        XmlDispatcher dispatcher = mapper.dispatcher().on(Order.class, orders::add).build();
+        dispatcher.dispatch("<specialOrder><id>1</id><customer>Jane</customer><priority>high</priority>"
+                + "</specialOrder>");
+
+        assertEquals(1, orders.size());
+        SpecialOrder order = (SpecialOrder) orders.get(0);
+        assertEquals("Jane", order.getCustomer());
+        assertEquals("high", order.getPriority());
+    }
+
+    @Test(expected = XmlMappingException.class)
+    public void testNoHandler() throws Exception {
+        XmlMapper mapper = new XmlMapper(JAXBContext.newInstance(TestUser.class, Order.class));
+        mapper.dispatcher().on(Order.class, order -> { }).build().dispatch(USER);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testClassWithoutRootElement() throws Exception {
+        XmlMapper mapper = new XmlMapper(JAXBContext.newInstance(Order.class));
+        mapper.dispatcher().on(TestUser.class, user -> { }).build();
+    }
+
+    @XmlRootElement
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class SpecialOrder extends Order {
+        private String priority;
+
+        public String getPriority() { return priority; }
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.larsderidder.xml;
+
+import com.github.larsderidder.xml.model.Order;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class XmlIncrementalDecoderTest {
+
+    private final XmlMapper mapper = new XmlMapper("com.github.larsderidder.xml.model");
+
+    @Test
+    public void testDecodesDocumentsSplitAcrossChunks() {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<order><id>1</id><customer>Zoë &lt;Z&gt;</customer><quantity>3</quantity></order>\n"
+                + "<?xml version=\"1.0\"?><!-- second --><order><id>2</id><customer><![CDATA[</order>]]></customer></order>";
+        byte[] bytes = xml.getBytes(UTF_8);
+
+        XmlIncrementalDecoder<Order> decoder = mapper.newDecoder(Order.class);
+        List<Order> orders = new ArrayList<>();
+        for (byte b : bytes) {
+            orders.addAll(decoder.decode(ByteBuffer.wrap(new byte[]{b})));
+        }
+        decoder.finish();
+
+        assertEquals(2, orders.size());
+        assertEquals("Zoë <Z>", orders.get(0).getCustomer());
+        assertEquals(3, orders.get(0).getQuantity());
+        assertEquals("</order>", orders.get(1).getCustomer());
+    }
+
+    @Test
+    public void testOneChunkCompletingSeveralDocuments() {
+        XmlIncrementalDecoder<Order> decoder = mapper.newDecoder(Order.class);
+
+        assertEquals(1, decoder.decode(ByteBuffer.wrap("<order><id>1</id></order><order><i".getBytes(UTF_8))).size());
+        assertFalse(decoder.isAtBoundary());
+
+        List<Order> orders = decoder.decode(ByteBuffer.wrap("d>2</id></order><order/>".getBytes(UTF_8)));
+        assertEquals(2, orders.size());
+        assertEquals("2", orders.get(0).getId());
+        assertTrue(decoder.isAtBoundary());
+    }
+
+    @Test(expected = XmlMappingException.class)
+    public void testFinishInsideDocument() {
+        XmlIncrementalDecoder<Order> decoder = mapper.newDecoder(Order.class);
+        assertTrue(decoder.decode(ByteBuffer.wrap("<order><id>1</id>".getBytes(UTF_8))).isEmpty());
+        decoder.finish();
+    }
+
+    @Test(expected = XmlMappingException.class)
+    public void testUnexpectedEndTag() {
+        mapper.newDecoder(Order.class).decode(ByteBuffer.wrap("</order>".getBytes(UTF_8)));
+    }
+}
@@ -1,12 +1,34 @@
 package com.github.larsderidder.xml;
 
+import com.github.larsderidder.xml.model.Order;
 import org.junit.Test;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.namespace.QName;
+import javax.xml.validation.Schema;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.*;
 
 public class XmlMapperTest {
@@ -28,6 +50,13 @@ public class XmlMapperTest {
         public String getEmail() { return email; }
     }
 
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static class TestAdmin extends TestUser {
+        private String role;
+
+        public String getRole() { return role; }
+    }
+
     @Test
     public void testMarshaling() throws Exception {
         JAXBContext context = JAXBContext.newInstance(TestUser.class);
@@ -70,4 +99,394 @@ public class XmlMapperTest {
 
         mapper.fromXml("invalid xml", TestUser.class);
     }
+
+    @Test
+    public void testPooledUnmarshallerDoesNotKeepSchema() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(TestUser.class);
+        XmlMapper mapper = new XmlMapper(context, "test-user.xsd");
+
+        String valid = "<testUser><name>Jane</name><email>jane@example.com</email></testUser>";
+        String invalid = "<testUser><name>Jane</name></testUser>";
+
+        assertEquals("Jane", mapper.fromXml(valid, TestUser.class, true).getName());
+        assertEquals("Jane", mapper.fromXml(invalid, TestUser.class, false).getName());
+
+        try {
+            mapper.fromXml(invalid, TestUser.class, true);
+            fail("Expected validation failure");
+        } catch (XmlMappingException expected) {
+            // expected
+        }
+        assertEquals("Jane", mapper.fromXml(invalid, TestUser.class, false).getName());
+    }
+
+    @Test
+    public void testConcurrentUnmarshaling() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(TestUser.class);
+        final XmlMapper mapper = XmlMapper.builder(context).poolSize(2).build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final String name = "user" + i;
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() {
+                        String xml = "<testUser><name>" + name + "</name><email>e</email></testUser>";
+                        return mapper.fromXml(xml, TestUser.class).getName();
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals("user" + i, futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testPoolingDisabled() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(TestUser.class);
+        XmlMapper mapper = XmlMapper.builder(context).poolSize(0).build();
+
+        String xml = "<testUser><name>Jane</name><email>jane@example.com</email></testUser>";
+        assertEquals("Jane", mapper.fromXml(xml, TestUser.class).getName());
+        assertEquals("Jane", mapper.fromXml(xml, TestUser.class).getName());
+    }
+
+    @Test
+    public void testPooledMarshallerKeepsFormattingModesApart() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(TestUser.class);
+        XmlMapper mapper = new XmlMapper(context);
+
+        TestUser user = new TestUser("John", "john@example.com");
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(mapper.toXml(user, true).contains("\n"));
+            assertFalse(mapper.toXml(user, false).contains("\n"));
+        }
+    }
+
+    @Test
+    public void testPackageConstructorSharesContext() {
+        JAXBContext first = JaxbContextCache.getContext("com.github.larsderidder.xml.model");
+        JAXBContext second = JaxbContextCache.getContext("com.github.larsderidder.xml.model");
+        assertSame(first, second);
+
+        XmlMapper mapper = new XmlMapper("com.github.larsderidder.xml.model");
+        Order order = mapper.fromXml("<order><id>1</id><customer>Jane</customer><quantity>2</quantity></order>",
+                Order.class);
+        assertEquals("Jane", order.getCustomer());
+        assertEquals(2, order.getQuantity());
+
+        // The root element table is built once per context, not per mapper
+        assertSame(mapper.rootElements(), new XmlMapper("com.github.larsderidder.xml.model").rootElements());
+    }
+
+    @Test(expected = XmlMappingException.class)
+    public void testUnknownPackage() {
+        new XmlMapper("com.github.larsderidder.xml.missing");
+    }
+
+    @Test
+    public void testSchemaIsCompiledOnce() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(TestUser.class);
+        URL schemaUrl = getClass().getClassLoader().getResource("test-user.xsd");
+        SchemaCache.invalidate(schemaUrl);
+
+        long misses = SchemaCache.missCount();
+        long hits = SchemaCache.hitCount();
+
+        new XmlMapper(context, "test-user.xsd");
+        new XmlMapper(context, "test-user.xsd");
+
+        assertEquals(misses + 1, SchemaCache.missCount());
+        assertEquals(hits + 1, SchemaCache.hitCount());
+        assertSame(SchemaCache.getSchema(schemaUrl), SchemaCache.getSchema(schemaUrl));
+
+        SchemaCache.invalidate(schemaUrl);
+        SchemaCache.getSchema(schemaUrl);
+        assertEquals(misses + 2, SchemaCache.missCount());
+    }
+
+    @Test
+    public void testSchemaIsRecompiledWhenIncludedSchemaChanges() throws Exception {
+        Path dir = Files.createTempDirectory("schemas");
+        Path main = dir.resolve("main.xsd");
+        Path part = dir.resolve("part.xsd");
+        Files.write(main, ("<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>"
+                + "<xs:include schemaLocation='part.xsd'/></xs:schema>").getBytes(UTF_8));
+        Files.write(part, ("<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>"
+                + "<xs:element name='note' type='xs:string'/></xs:schema>").getBytes(UTF_8));
+        URL schemaUrl = main.toUri().toURL();
+
+        Schema first = SchemaCache.getSchema(schemaUrl);
+        assertSame(first, SchemaCache.getSchema(schemaUrl));
+
+        Files.setLastModifiedTime(part, FileTime.fromMillis(Files.getLastModifiedTime(part).toMillis() + 10000));
+        assertNotSame(first, SchemaCache.getSchema(schemaUrl));
+        SchemaCache.invalidate(schemaUrl);
+    }
+
+    @Test(expected = XmlMappingException.class)
+    public void testMissingSchema() throws Exception {
+        new XmlMapper(JAXBContext.newInstance(TestUser.class), "missing.xsd");
+    }
+
+    @Test
+    public void testLazyInitDefersContextCreation() {
+        XmlMapper mapper = XmlMapper.builder("com.github.larsderidder.xml.missing").lazyInit(true).build();
+
+        try {
+            mapper.fromXml("<order/>", Order.class);
+            fail("Expected XmlMappingException");
+        } catch (XmlMappingException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        XmlMapper mapper = XmlMapper.builder(JAXBContext.newInstance(TestUser.class))
+                .schema("test-user.xsd")
+                .lazyInit(true)
+                .build();
+
+        mapper.warmUpAsync().get(10, TimeUnit.SECONDS);
+        mapper.warmUp(new TestUser("Jane", "jane@example.com"), 10);
+
+        assertTrue(mapper.validate("<testUser><name>Jane</name><email>e</email></testUser>").isValid());
+        assertEquals("Jane", mapper.fromXml(mapper.toXml(new TestUser("Jane", "e")), TestUser.class, true).getName());
+    }
+
+    @Test
+    public void testMarshalingToOutputs() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(TestUser.class);
+        XmlMapper mapper = new XmlMapper(context);
+        TestUser user = new TestUser("John", "john@example.com");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        mapper.toXml(user, outputStream);
+        String fromStream = new String(outputStream.toByteArray(), UTF_8);
+
+        StringWriter writer = new StringWriter();
+        mapper.toXml(user, writer);
+
+        StringBuilder builder = new StringBuilder("prefix:");
+        mapper.toXml(user, builder);
+
+        assertEquals(mapper.toXml(user), fromStream);
+        assertEquals(fromStream, writer.toString());
+        assertEquals("prefix:" + fromStream, builder.toString());
+    }
+
+    @Test
+    public void testByteInputAndOutput() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(TestUser.class);
+        XmlMapper mapper = new XmlMapper(context);
+
+        byte[] xml = mapper.toXmlBytes(new TestUser("Jane", "jane@example.com"));
+        assertEquals(mapper.toXml(new TestUser("Jane", "jane@example.com")), new String(xml, UTF_8));
+
+        byte[] padded = new byte[xml.length + 6];
+        System.arraycopy(xml, 0, padded, 3, xml.length);
+        assertEquals("Jane", mapper.fromXml(padded, 3, xml.length, TestUser.class).getName());
+
+        ByteBuffer heap = ByteBuffer.wrap(padded, 3, xml.length);
+        assertEquals("Jane", mapper.fromXml(heap, TestUser.class).getName());
+        assertEquals(3, heap.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(xml.length);
+        direct.put(xml).flip();
+        assertEquals("Jane", mapper.fromXml(direct, TestUser.class).getName());
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    public void testReusedOutputBufferHoldsOnlyCurrentDocument() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(TestUser.class);
+        XmlMapper mapper = new XmlMapper(context);
+
+        StringBuilder longName = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            longName.append('x');
+        }
+
+        String large = mapper.toXml(new TestUser(longName.toString(), "a@example.com"));
+        String small = mapper.toXml(new TestUser("Jo", "b@example.com"));
+        byte[] smallBytes = mapper.toXmlBytes(new TestUser("Jo", "b@example.com"));
+
+        assertTrue(large.contains(longName));
+        assertTrue(small.endsWith("</testUser>"));
+        assertFalse(small.contains("xxx"));
+        assertEquals(small, new String(smallBytes, UTF_8));
+    }
+
+    @Test
+    public void testValidateWithoutUnmarshaling() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(TestUser.class);
+        XmlMapper mapper = new XmlMapper(context, "test-user.xsd");
+
+        String valid = "<testUser><name>Jane</name><email>jane@example.com</email></testUser>";
+        assertTrue(mapper.validate(valid).isValid());
+        assertTrue(mapper.validate(valid.getBytes(UTF_8)).isValid());
+
+        ValidationResult invalid = mapper.validate("<testUser>\n<name>Jane</name>\n<phone>1</phone>\n</testUser>");
+        assertFalse(invalid.isValid());
+        assertEquals(1, invalid.getErrors().size());
+        ValidationError error = invalid.getErrors().get(0);
+        assertEquals(ValidationError.Severity.ERROR, error.getSeverity());
+        assertEquals(3, error.getLineNumber());
+        assertEquals("/testUser/phone", error.getPath());
+
+        ValidationResult malformed = mapper.validate("<testUser><name>Jane</testUser>");
+        assertFalse(malformed.isValid());
+        assertEquals(ValidationError.Severity.FATAL_ERROR,
+                malformed.getErrors().get(malformed.getErrors().size() - 1).getSeverity());
+
+        assertTrue(mapper.validate(valid).isValid());
+    }
+
+    @Test(expected = XmlMappingException.class)
+    public void testValidateWithoutSchema() throws Exception {
+        new XmlMapper(JAXBContext.newInstance(TestUser.class)).validate("<testUser/>");
+    }
+
+    @Test
+    public void testCollectValidationErrors() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(TestUser.class);
+        XmlMapper mapper = XmlMapper.builder(context).schema("test-user.xsd").collectValidationErrors(10).build();
+
+        String valid = "<testUser><name>Jane</name><email>jane@example.com</email></testUser>";
+        assertEquals("Jane", mapper.fromXml(valid, TestUser.class, true).getName());
+
+        String invalid = "<testUser>\n<nickname>J</nickname>\n<name>Jane</name>\n<phone>1</phone>\n</testUser>";
+        try {
+            mapper.fromXml(invalid, TestUser.class, true);
+            fail("Expected XmlValidationException");
+        } catch (XmlValidationException e) {
+            assertTrue(e.getErrors().size() >= 2);
+            assertEquals(2, e.getErrors().get(0).getLineNumber());
+            assertEquals("/testUser/nickname", e.getErrors().get(0).getPath());
+        }
+
+        assertEquals("Jane", mapper.fromXml(new ByteArrayInputStream(valid.getBytes(UTF_8)), TestUser.class, true)
+                .getName());
+    }
+
+    @Test
+    public void testValidationErrorBudgetStopsEarly() throws Exception {
+        JAXBContext context = JAXBContext.newInstance(TestUser.class);
+        XmlMapper mapper = XmlMapper.builder(context).schema("test-user.xsd").collectValidationErrors(2).build();
+
+        StringBuilder xml = new StringBuilder("<testUser><name>Jane</name><email>e</email>");
+        for (int i = 0; i < 50; i++) {
+            xml.append("<score>x").append(i).append("</score>");
+        }
+        xml.append("</testUser>");
+
+        try {
+            mapper.fromXml(xml.toString(), TestUser.class, true);
+            fail("Expected XmlValidationException");
+        } catch (XmlValidationException e) {
+            assertEquals(2, e.getErrors().size());
+        }
+        assertEquals(2, mapper.validate(xml.toString()).getErrors().size());
+    }
+
+    @Test
+    public void testPeekRoot() throws Exception {
+        XmlMapper mapper = new XmlMapper(JAXBContext.newInstance(TestUser.class, TestAdmin.class, Order.class));
+
+        RootInfo user = mapper.peekRoot("<?xml version=\"1.0\"?><!-- user --><testUser><name>Jane</name></testUser>");
+        assertEquals(new QName("testUser"), user.getName());
+        assertEquals(TestUser.class, user.getType());
+        assertFalse(user.isJaxbElement());
+
+        String admin = "<testUser xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:type='testAdmin'>"
+                + "<name>Jane</name><role>owner</role></testUser>";
+        assertEquals(TestAdmin.class, mapper.peekRoot(admin.getBytes(UTF_8)).getType());
+
+        // Only the start tag is read, so the rest of the document does not matter
+        RootInfo unknown = mapper.peekRoot(new ByteArrayInputStream("<invoice><unclosed>".getBytes(UTF_8)));
+        assertEquals(new QName("invoice"), unknown.getName());
+        assertNull(unknown.getType());
+    }
+
+    @Test
+    public void testTypedUnmarshalFailsFastOnRootMismatch() throws Exception {
+        XmlMapper mapper = new XmlMapper(JAXBContext.newInstance(TestUser.class, TestAdmin.class, Order.class));
+
+        // The broken tail would fail the unmarshaller; the mismatch is reported before binding starts
+        String order = "<order><id>1</id><customer>Jane</customer><broken></order>";
+        assertMismatch(() -> mapper.fromXml(order, TestUser.class, false));
+        assertMismatch(() -> mapper.fromXml(order.getBytes(UTF_8), 0, order.length(), TestUser.class));
+        assertMismatch(() -> mapper.fromXml(new BufferedInputStream(
+                new ByteArrayInputStream(order.getBytes(UTF_8))), TestUser.class, false));
+
+        String admin = "<testUser xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:type='testAdmin'>"
+                + "<name>Jane</name><role>owner</role></testUser>";
+        TestUser user = mapper.fromXml(new BufferedInputStream(new ByteArrayInputStream(admin.getBytes(UTF_8))),
+                TestUser.class, false);
+        assertEquals("owner", ((TestAdmin) user).getRole());
+        assertMismatch(() -> mapper.fromXml("<testUser><name>Jane</name></testUser>", TestAdmin.class));
+    }
+
+    @Test
+    public void testTypedUnmarshalParsesAllInputsAlike() throws Exception {
+        XmlMapper mapper = new XmlMapper(JAXBContext.newInstance(TestUser.class, TestAdmin.class, Order.class));
+
+        String xml = "<!DOCTYPE testUser [<!ENTITY who 'Jane'>]>"
+                + "<testUser xmlns:i='http://www.w3.org/2001/XMLSchema-instance' i:type='testAdmin'>"
+                + "<name>&who;</name><role>owner</role></testUser>";
+        byte[] bytes = xml.getBytes(UTF_8);
+        TestUser fromString = mapper.fromXml(xml, TestUser.class);
+        TestUser fromBytes = mapper.fromXml(bytes, 0, bytes.length, TestUser.class);
+        TestUser fromStream = mapper.fromXml(new BufferedInputStream(new ByteArrayInputStream(bytes)),
+                TestUser.class, false);
+
+        for (TestUser user : Arrays.asList(fromString, fromBytes, fromStream)) {
+            assertEquals("Jane", user.getName());
+            assertEquals("owner", ((TestAdmin) user).getRole());
+        }
+    }
+
+    private static void assertMismatch(Runnable unmarshal) {
+        try {
+            unmarshal.run();
+            fail("Expected XmlMappingException");
+        } catch (XmlMappingException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("XML does not match expected type"));
+        }
+    }
+
+    @Test
+    public void testFailuresOnReusedUnmarshallerAreQuiet() throws Exception {
+        XmlMapper mapper = XmlMapper.builder(JAXBContext.newInstance(TestUser.class))
+                .failureReporter(FailureReporter.silent())
+                .poolSize(1)
+                .build();
+
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true));
+        System.setErr(new PrintStream(printed, true));
+        try {
+            for (int i = 0; i < 3; i++) {
+                try {
+                    mapper.fromXml("<testUser><name>Jane</name>", TestUser.class);
+                    fail("Expected XmlMappingException");
+                } catch (XmlMappingException expected) {
+                    // expected
+                }
+            }
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+        assertEquals("", printed.toString());
+    }
 }
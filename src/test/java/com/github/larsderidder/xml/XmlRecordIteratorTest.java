@@ -0,0 +1,83 @@
+package com.github.larsderidder.xml;
+
+import com.github.larsderidder.xml.model.Order;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class XmlRecordIteratorTest {
+
+    private static final QName ORDER = new QName("order");
+
+    private final XmlMapper mapper = new XmlMapper("com.github.larsderidder.xml.model");
+
+    @Test
+    public void testIteratesRecords() {
+        String xml = "<?xml version=\"1.0\"?>\n<orders>\n"
+                + "  <order><id>1</id><customer>Jane</customer><quantity>1</quantity></order>\n"
+                + "  <order><id>2</id><customer>John</customer><quantity>2</quantity></order>\n"
+                + "</orders>";
+
+        XmlRecordIterator<Order> iterator = mapper.iterate(input(xml), ORDER, Order.class);
+
+        assertTrue(iterator.hasNext());
+        assertEquals("Jane", iterator.next().getCustomer());
+        assertEquals("John", iterator.next().getCustomer());
+        assertFalse(iterator.hasNext());
+
+        try {
+            iterator.next();
+            fail("Expected NoSuchElementException");
+        } catch (NoSuchElementException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAdjacentRecordsAndOtherElements() {
+        String xml = "<feed><header><order><id>nested</id></order></header><batch>"
+                + "<order><id>1</id></order><order><id>2</id></order><order><id>3</id></order>"
+                + "</batch></feed>";
+
+        try (Stream<Order> orders = mapper.stream(input(xml), ORDER, Order.class)) {
+            List<String> ids = orders.map(Order::getId).collect(Collectors.toList());
+            assertEquals(4, ids.size());
+            assertEquals("nested", ids.get(0));
+            assertEquals("3", ids.get(3));
+        }
+    }
+
+    @Test
+    public void testRecordNameIncludesNamespace() {
+        String xml = "<orders xmlns:x=\"urn:other\"><x:order><id>1</id></x:order><order><id>2</id></order></orders>";
+
+        try (Stream<Order> orders = mapper.stream(input(xml), ORDER, Order.class)) {
+            assertEquals(1, orders.count());
+        }
+    }
+
+    @Test
+    public void testEmptyDocument() {
+        XmlRecordIterator<Order> iterator = mapper.iterate(input("<orders/>"), ORDER, Order.class);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = XmlMappingException.class)
+    public void testMalformedDocument() {
+        XmlRecordIterator<Order> iterator = mapper.iterate(input("<orders><order><id>1</order>"), ORDER, Order.class);
+        iterator.hasNext();
+    }
+
+    private static InputStream input(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(UTF_8));
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.larsderidder.xml;
+
+import com.github.larsderidder.xml.model.Order;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import javax.xml.namespace.QName;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class XmlRecordPublisherTest {
+
+    private static final QName ORDER = new QName("order");
+
+    private static final String ORDERS = "<?xml version=\"1.0\"?>\n<!-- orders > export -->\n<orders>\n"
+            + "  <order><id>1</id><customer><![CDATA[Jane </order> Doe]]></customer><quantity>1</quantity></order>\n"
+            + "  <?marker a > b?><note>skipped</note>\n"
+            + "  <order id-note='a > b'><id>2</id><customer>John</customer><quantity>2</quantity></order>\n"
+            + "  <order/>\n"
+            + "</orders>\n";
+
+    private final XmlMapper mapper = new XmlMapper("com.github.larsderidder.xml.model");
+
+    @Test
+    public void testPublishesRecordsFromSmallChunks() {
+        XmlRecordPublisher<Order> publisher = mapper.publisher(ORDER, Order.class);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        feedInChunks(publisher, ORDERS, 7);
+        publisher.complete();
+
+        assertEquals(3, subscriber.records.size());
+        assertEquals("Jane </order> Doe", subscriber.records.get(0).getCustomer());
+        assertEquals("John", subscriber.records.get(1).getCustomer());
+        assertNull(subscriber.records.get(2).getId());
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void testHonorsDemand() {
+        XmlRecordPublisher<Order> publisher = mapper.publisher(ORDER, Order.class);
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        publisher.subscribe(subscriber);
+
+        assertFalse(publisher.feed(ByteBuffer.wrap(ORDERS.getBytes(UTF_8))));
+        publisher.complete();
+        assertEquals(1, subscriber.records.size());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(1);
+        assertEquals(2, subscriber.records.size());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(5);
+        assertEquals(3, subscriber.records.size());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void testNamespaceDeclaredOnRoot() {
+        String xml = "<o:orders xmlns:o=\"urn:orders\">"
+                + "<o:order><id>1</id></o:order><order><id>other</id></order><o:order><id>2</id></o:order>"
+                + "</o:orders>";
+
+        XmlRecordPublisher<Order> publisher = mapper.publisher(new QName("urn:orders", "order"), Order.class);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        feedInChunks(publisher, xml, 3);
+        publisher.complete();
+
+        assertEquals(2, subscriber.records.size());
+        assertEquals("1", subscriber.records.get(0).getId());
+        assertEquals("2", subscriber.records.get(1).getId());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void testIncompleteDocumentFails() {
+        XmlRecordPublisher<Order> publisher = mapper.publisher(ORDER, Order.class);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        publisher.feed(ByteBuffer.wrap("<orders><order><id>1</id></order><order><id>2".getBytes(UTF_8)));
+        publisher.complete();
+
+        assertEquals(1, subscriber.records.size());
+        assertFalse(subscriber.completed);
+        assertTrue(subscriber.error instanceof XmlMappingException);
+    }
+
+    @Test
+    public void testSecondRootElementFails() {
+        XmlRecordPublisher<Order> publisher = mapper.publisher(ORDER, Order.class);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        publisher.feed(ByteBuffer.wrap(("<orders><order><id>1</id></order></orders>"
+                + "<orders><order><id>2</id></order></orders>").getBytes(UTF_8)));
+
+        assertEquals(1, subscriber.records.size());
+        assertTrue(subscriber.error instanceof XmlMappingException);
+    }
+
+    @Test
+    public void testCancelStopsDelivery() {
+        XmlRecordPublisher<Order> publisher = mapper.publisher(ORDER, Order.class);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        publisher.feed(ByteBuffer.wrap("<orders><order><id>1</id></order>".getBytes(UTF_8)));
+        subscriber.subscription.cancel();
+        assertTrue(publisher.isCancelled());
+
+        publisher.feed(ByteBuffer.wrap("<order><id>2</id></order></orders>".getBytes(UTF_8)));
+        publisher.complete();
+
+        assertEquals(1, subscriber.records.size());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void testNonPositiveRequestFails() {
+        XmlRecordPublisher<Order> publisher = mapper.publisher(ORDER, Order.class);
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber);
+        publisher.feed(ByteBuffer.wrap(ORDERS.getBytes(UTF_8)));
+        publisher.complete();
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(subscriber.records.isEmpty());
+        assertFalse(subscriber.completed);
+        assertTrue(publisher.isCancelled());
+    }
+
+    @Test
+    public void testSecondSubscriberIsRejected() {
+        XmlRecordPublisher<Order> publisher = mapper.publisher(ORDER, Order.class);
+        publisher.subscribe(new RecordingSubscriber(1));
+
+        RecordingSubscriber second = new RecordingSubscriber(1);
+        publisher.subscribe(second);
+
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    private static void feedInChunks(XmlRecordPublisher<?> publisher, String xml, int chunkSize) {
+        byte[] bytes = xml.getBytes(UTF_8);
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            publisher.feed(ByteBuffer.wrap(bytes, offset, Math.min(chunkSize, bytes.length - offset)));
+        }
+    }
+
+    private static final class RecordingSubscriber implements Subscriber<Order> {
+
+        private final long initialRequest;
+        private final List<Order> records = new ArrayList<>();
+        private Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(Order order) {
+            records.add(order);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.larsderidder.xml;
+
+import com.github.larsderidder.xml.model.Order;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class XmlRecordWriterTest {
+
+    private final XmlMapper mapper = new XmlMapper("com.github.larsderidder.xml.model");
+
+    @Test
+    public void testWritesWrappedRecords() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (XmlRecordWriter<Order> writer = mapper.openWriter(output, new QName("orders"))) {
+            for (int i = 0; i < 100; i++) {
+                writer.write(new Order(String.valueOf(i), "customer" + i, i));
+            }
+            assertEquals(100, writer.getCount());
+        }
+
+        String xml = new String(output.toByteArray(), UTF_8);
+        assertTrue(xml.startsWith("<?xml"));
+        assertEquals(1, xml.split("<\\?xml", -1).length - 1);
+        assertTrue(xml.endsWith("</orders>"));
+
+        try (Stream<Order> orders = mapper.stream(new ByteArrayInputStream(output.toByteArray()),
+                new QName("order"), Order.class)) {
+            List<Order> read = orders.collect(Collectors.toList());
+            assertEquals(100, read.size());
+            assertEquals("customer42", read.get(42).getCustomer());
+        }
+    }
+
+    @Test
+    public void testWritesToChannel() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (XmlRecordWriter<Order> writer = mapper.openWriter(Channels.newChannel(output), new QName("orders"))) {
+            writer.write(new Order("1", "Jane", 1));
+        }
+
+        String xml = new String(output.toByteArray(), UTF_8);
+        assertTrue(xml.contains("<orders><order><id>1</id>"));
+    }
+
+    @Test
+    public void testCloseReleasesOutputWhenEndingFails() {
+        FailingOutputStream output = new FailingOutputStream();
+        // Unbuffered, so ending the document reaches the failing stream
+        XmlRecordWriter<Order> writer = new XmlRecordWriter<>(mapper, output, new QName("orders"));
+        writer.write(new Order("1", "Jane", 1));
+        output.failing = true;
+
+        try {
+            writer.close();
+            fail("Expected XmlMappingException");
+        } catch (XmlMappingException e) {
+            assertTrue(output.closed);
+        }
+    }
+
+    @Test(expected = XmlMappingException.class)
+    public void testWriteAfterClose() {
+        XmlRecordWriter<Order> writer = mapper.openWriter(new ByteArrayOutputStream(), new QName("orders"));
+        writer.close();
+        writer.write(new Order("1", "Jane", 1));
+    }
+
+    private static final class FailingOutputStream extends OutputStream {
+
+        private boolean failing;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (failing) {
+                throw new IOException("Connection reset");
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.larsderidder.xml.accessors;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+
+@XmlAccessorType(XmlAccessType.PROPERTY)
+public class Customer {
+
+    private String name;
+    private boolean active;
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public boolean isActive() { return active; }
+    public void setActive(boolean active) { this.active = active; }
+}
@@ -0,0 +1,26 @@
+package com.github.larsderidder.xml.accessors;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class Invoice {
+
+    String number;
+    long amount;
+    Customer customer;
+    @XmlElement(name = "line")
+    List<String> lines = new ArrayList<>();
+    private String note;
+
+    public String getNumber() { return number; }
+    public long getAmount() { return amount; }
+    public Customer getCustomer() { return customer; }
+    public List<String> getLines() { return lines; }
+    public String getNote() { return note; }
+}
@@ -0,0 +1,6 @@
+@GenerateAccessors
+@XmlAccessorFactory(JaxbAccessorFactory.class)
+package com.github.larsderidder.xml.accessors;
+
+import com.github.larsderidder.xml.GenerateAccessors;
+import com.sun.xml.bind.XmlAccessorFactory;
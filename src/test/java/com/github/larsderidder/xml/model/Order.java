@@ -0,0 +1,26 @@
+package com.github.larsderidder.xml.model;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class Order {
+
+    private String id;
+    private String customer;
+    private int quantity;
+
+    public Order() {}
+
+    public Order(String id, String customer, int quantity) {
+        this.id = id;
+        this.customer = customer;
+        this.quantity = quantity;
+    }
+
+    public String getId() { return id; }
+    public String getCustomer() { return customer; }
+    public int getQuantity() { return quantity; }
+}